@@ -0,0 +1,63 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of direct byte buffers of a single size, so that the I/O of many sessions reuses a bounded set of
+ * buffers instead of allocating (and later collecting) a new direct buffer for every read and write.
+ * It is not thread-safe: it is meant to be owned by a single selector thread.
+ *
+ * @author Roei Dahuki
+ */
+class BufferPool {
+    /* Fields: */
+    private final int bufferSize;
+    private final int maxPooledBuffers;
+    private final ArrayDeque<ByteBuffer> pooled = new ArrayDeque<>();
+    private long allocations = 0;  // the number of buffers that were not taken from the pool
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param bufferSize       the size of every buffer, in bytes.
+     * @param maxPooledBuffers the maximal number of idle buffers the pool keeps.
+     */
+    public BufferPool(int bufferSize, int maxPooledBuffers) {
+        this.bufferSize = bufferSize;
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, or allocates a new one if the pool is empty.
+     *
+     * @return a cleared direct buffer.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = pooled.pollFirst();
+        if (buffer == null) {
+            allocations++;
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool (or drops it, if the pool is full).
+     *
+     * @param buffer a buffer that was acquired from this pool, and is no longer used.
+     */
+    public void release(ByteBuffer buffer) {
+        if (pooled.size() < maxPooledBuffers) {
+            buffer.clear();
+            pooled.addFirst(buffer);  // the most recently used buffer is the most likely to be cached
+        }
+    }
+
+    /**
+     * Getter for the number of allocated buffers.
+     *
+     * @return the number of times a buffer had to be allocated, rather than taken from the pool.
+     */
+    public long getAllocations() {
+        return allocations;
+    }
+}
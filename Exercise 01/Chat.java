@@ -1,57 +1,94 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Scanner;
 
 /**
  * This class includes the main function, and is responsible for generating a chat between a constant number
  * of ChatterBots. It initializes the arrays of replies to legal and illegal request, names of the
  * ChatterBots, and the ChatterBots themselves.
+ * The statements are ropes, so a reply that repeats the previous statement references it instead of copying
+ * it, and every statement is kept within a length cap (which may be given as the first command line
+ * argument).
  *
  * @author Roei Dahuki
  */
 class Chat {
     /* Constants: */
     private static final int NUMBER_OF_BOTS = 2;
-    private static final String INIT_STATEMENT = "say Hello World!";
-    private static final String CHAT_FORMAT = "%s: %s";
+    static final String INIT_STATEMENT = "say Hello World!";
+    static final long DEFAULT_STATEMENT_CAP = 1L << 20;  // the default maximal length of a statement
+    private static final String CHAT_SEPARATOR = ": ";
 
     /**
      * main function.
      * Generates arrays to initialize the ChatterBots, then runs the chat in an infinite loop.
      *
-     * @param args main's args.
+     * @param args main's args, optionally the maximal length of a statement.
      */
     public static void main(String[] args) {
         /* Initializations for the chat system */
-        ChatterBot[] bots = new ChatterBot[NUMBER_OF_BOTS];
-        String[] names = generateNamesArray();
-        String[][] repliesToLegalRequestArray = generateRepliesToLegalRequestArray();
-        String[][] repliesToIllegalRequestArray = generateRepliesToIllegalRequestArray();
-        for (int i = 0; i < NUMBER_OF_BOTS; i++) {  // init. ChatterBots:
-            bots[i] = new ChatterBot(
-                    names[i],
-                    repliesToLegalRequestArray[i],
-                    repliesToIllegalRequestArray[i]
-            );
-        }
-        String statement = INIT_STATEMENT;
+        ChatterBot[] bots = generateBots(NUMBER_OF_BOTS);
+        long statementCap = (args.length > 0) ? Long.parseLong(args[0]) : DEFAULT_STATEMENT_CAP;
+        Rope statement = Rope.of(INIT_STATEMENT);
         Scanner scanner = new Scanner(System.in);
 
         /* Chat's infinite loop */
         while (true) {
             for (var bot : bots) {
-                statement = bot.replyTo(statement);
-                System.out.printf(CHAT_FORMAT, bot.getName(), statement);
+                statement = bot.replyTo(statement).bound(statementCap);
+                try {
+                    writeTurn(System.out, bot.getName(), statement);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);  // PrintStream never throws, but Appendable may
+                }
+                System.out.flush();
                 scanner.nextLine();  // waiting for "Enter" before continuing
             }
         }
     }
 
+    /**
+     * Generates the given number of ChatterBots, with their names and arrays of replies.
+     *
+     * @param numberOfBots the number of ChatterBots to generate.
+     * @return an array of the generated ChatterBots.
+     */
+    static ChatterBot[] generateBots(int numberOfBots) {
+        ChatterBot[] bots = new ChatterBot[numberOfBots];
+        String[] names = generateNamesArray(numberOfBots);
+        String[][] repliesToLegalRequestArray = generateRepliesToLegalRequestArray(numberOfBots);
+        String[][] repliesToIllegalRequestArray = generateRepliesToIllegalRequestArray(numberOfBots);
+        for (int i = 0; i < numberOfBots; i++) {  // init. ChatterBots:
+            bots[i] = new ChatterBot(
+                    names[i],
+                    repliesToLegalRequestArray[i],
+                    repliesToIllegalRequestArray[i]
+            );
+        }
+        return bots;
+    }
+
+    /**
+     * Writes a single turn of the chat - the name of the bot and its statement - into the given output,
+     * streaming the statement segment after segment.
+     *
+     * @param out       the output to write into.
+     * @param name      the name of the bot.
+     * @param statement the statement of the bot.
+     * @throws IOException if the output failed.
+     */
+    static void writeTurn(Appendable out, String name, Rope statement) throws IOException {
+        out.append(name).append(CHAT_SEPARATOR);
+        statement.writeTo(out);
+    }
+
 
     /*
      * Generates an array which its elements are the names for every ChatterBot, and returns it.
      */
-    private static String[] generateNamesArray() {
-        String[] namesArray = new String[NUMBER_OF_BOTS];
-        for (int i = 0; i < NUMBER_OF_BOTS; i++) {
+    private static String[] generateNamesArray(int numberOfBots) {
+        String[] namesArray = new String[numberOfBots];
+        for (int i = 0; i < numberOfBots; i++) {
             namesArray[i] = "BOT#" + (i + 1);
         }
         return namesArray;
@@ -61,9 +98,9 @@ class Chat {
      * Generates an array which its elements are the legalRequestsReplies field for every ChatterBot, and
      * returns it.
      */
-    private static String[][] generateRepliesToLegalRequestArray() {
-        String[][] repliesToLegalRequestArray = new String[NUMBER_OF_BOTS][];
-        for (int i = 0; i < NUMBER_OF_BOTS; i++) {
+    private static String[][] generateRepliesToLegalRequestArray(int numberOfBots) {
+        String[][] repliesToLegalRequestArray = new String[numberOfBots][];
+        for (int i = 0; i < numberOfBots; i++) {
             if (((i + 1) % 2) == 0) {
                 repliesToLegalRequestArray[i] = new String[]{
                         ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE,
@@ -88,9 +125,9 @@ class Chat {
      * Generates an array which its elements are the repliesToIllegalRequest field for every ChatterBot, and
      * returns it.
      */
-    private static String[][] generateRepliesToIllegalRequestArray() {
-        String[][] repliesToIllegalRequestArray = new String[NUMBER_OF_BOTS][];
-        for (int i = 0; i < NUMBER_OF_BOTS; i++) {
+    private static String[][] generateRepliesToIllegalRequestArray(int numberOfBots) {
+        String[][] repliesToIllegalRequestArray = new String[numberOfBots][];
+        for (int i = 0; i < numberOfBots; i++) {
             if (((i + 1) % 2) == 0) {
                 repliesToIllegalRequestArray[i] = new String[]{"what ", "say I should say ",
                         "what " + ChatterBot.PLACEHOLDER_FOR_ILLEGAL_REQUEST,
@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A chat runtime that hosts many conversations between ChatterBots at once, for load-testing the bots' logic.
+ * Every bot is an actor with its own bounded lock-free Mailbox, and all the actors share a small pool of
+ * worker threads (an event-loop scheduler): an actor is scheduled on a worker only when a message arrives to
+ * it, and it handles a batch of its messages there, so thousands of bots need only a few threads.
+ * An actor is never run by two workers at once, so every ChatterBot is still used by a single thread at a
+ * time. The reply time of every bot is recorded in its own ReplyMetrics.
+ * If a cycle history is given, every conversation has a CycleDetector, and a conversation that revisits a
+ * state ends there, skipping the rest of its turns. A conversation whose bot fails to reply ends there too,
+ * and the failure is reported.
+ * Usage:
+ * <code>java ChatEngine conversations turnsPerConversation [workers] [statementCap] [cycleHistory]</code>
+ *
+ * @author Roei Dahuki
+ */
+class ChatEngine {
+    /* Constants: */
+    private static final int BOTS_IN_CONVERSATION = 2;
+    private static final int MAILBOX_CAPACITY = 16;
+    private static final int BATCH_SIZE = 64;  // the maximal number of messages an actor handles in a run
+    private static final int SLOWEST_BOTS_TO_REPORT = 5;
+    // the default maximal length of a statement, smaller than the chat's one since every conversation holds
+    // its own statement:
+    private static final long DEFAULT_STATEMENT_CAP = 1L << 12;
+    private static final String USAGE_MSG =
+            "Usage: java ChatEngine conversations turnsPerConversation [workers] [statementCap] " +
+                    "[cycleHistory]";
+    private static final String REPORT_FORMAT =
+            "%d conversations, %d turns on %d workers in %.3fs: %.0f turns/sec%n";
+    private static final String METRICS_FORMAT =
+            "%s: %d replies, mean %.0fns, p50 %dns, p99 %dns, max %dns%n";
+    private static final String CYCLES_FORMAT =
+            "%d conversations ended in cycles of %d to %d turns (mean %.1f), %d turns skipped%n";
+    private static final String FAILURES_FORMAT = "%d conversations failed, %d turns lost%n";
+    private static final String FAILURE_MSG = "Conversation failed at %s: %s%n";
+    private static final String ALL_BOTS = "all bots";
+    private static final String ACTOR_LABEL_FORMAT = "conversation %d, %s";
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double MEDIAN = 50, TAIL = 99;
+
+    /* Fields: */
+    private final ExecutorService workers;
+    private final int numberOfWorkers;
+    private final long statementCap;
+    private final List<Actor> actors = new ArrayList<>();
+    private final CycleDetector cycleStatistics = new CycleDetector(0);  // merged from the conversations
+    private final List<CycleDetector> cycleDetectors = new ArrayList<>();
+    private final AtomicInteger failedConversations = new AtomicInteger();
+    private final AtomicLong lostTurns = new AtomicLong();
+    private int cycleHistory = 0;
+
+    /**
+     * Constructs a chat engine with the given number of worker threads.
+     *
+     * @param numberOfWorkers the number of threads all the bots share.
+     * @param statementCap    the maximal length of a statement.
+     */
+    public ChatEngine(int numberOfWorkers, long statementCap) {
+        this.numberOfWorkers = numberOfWorkers;
+        this.statementCap = statementCap;
+        this.workers = Executors.newFixedThreadPool(numberOfWorkers);
+    }
+
+    /**
+     * Setter for the number of last turns whose states every conversation remembers, to detect cycles.
+     *
+     * @param cycleHistory the number of turns, or 0 to run the conversations without detecting cycles.
+     */
+    public void setCycleHistory(int cycleHistory) {
+        this.cycleHistory = cycleHistory;
+    }
+
+    /**
+     * Runs the given number of conversations concurrently, each between its own pair of new ChatterBots,
+     * until every conversation has the given number of turns (or a cycle). Then shuts the workers down.
+     *
+     * @param conversations        the number of conversations.
+     * @param turnsPerConversation the number of turns in every conversation.
+     * @throws InterruptedException if interrupted while waiting for the conversations.
+     */
+    public void run(int conversations, long turnsPerConversation) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(conversations);
+        List<Actor> firstActors = new ArrayList<>();
+        for (int i = 0; i < conversations; i++) {
+            Conversation conversation = new Conversation(turnsPerConversation, finished);
+            if (cycleHistory > 0) {
+                conversation.cycles = new CycleDetector(cycleHistory);
+                cycleDetectors.add(conversation.cycles);
+            }
+            ChatterBot[] bots = Chat.generateBots(BOTS_IN_CONVERSATION);
+            Actor[] conversationActors = new Actor[bots.length];
+            for (int j = 0; j < bots.length; j++) {
+                conversationActors[j] = new Actor(bots[j], j, conversation,
+                        String.format(ACTOR_LABEL_FORMAT, i, bots[j].getName()));
+                actors.add(conversationActors[j]);
+            }
+            for (int j = 0; j < bots.length; j++) {  // every bot replies to the previous one
+                conversationActors[j].next = conversationActors[(j + 1) % bots.length];
+            }
+            firstActors.add(conversationActors[0]);
+        }
+        for (Actor actor : firstActors) {
+            actor.send(Rope.of(Chat.INIT_STATEMENT));
+        }
+        finished.await();
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+        for (CycleDetector detector : cycleDetectors) {
+            cycleStatistics.merge(detector);
+        }
+    }
+
+    /**
+     * Getter for the statistics of the cycles of all the conversations.
+     *
+     * @return the merged statistics.
+     */
+    public CycleDetector getCycleStatistics() {
+        return cycleStatistics;
+    }
+
+    /**
+     * Getter for the number of conversations that ended since a bot failed to reply.
+     *
+     * @return the number of failed conversations.
+     */
+    public int getFailedConversations() {
+        return failedConversations.get();
+    }
+
+    /**
+     * Getter for the number of turns that the failed conversations didn't have.
+     *
+     * @return the number of lost turns.
+     */
+    public long getLostTurns() {
+        return lostTurns.get();
+    }
+
+    /**
+     * Prints the reply-time metrics of all the bots together, and of the slowest bots.
+     */
+    public void printMetrics() {
+        ReplyMetrics total = new ReplyMetrics();
+        for (Actor actor : actors) {
+            total.merge(actor.metrics);
+        }
+        printMetrics(ALL_BOTS, total);
+        actors.stream()
+                .sorted(Comparator.comparingLong((Actor actor) -> actor.metrics.getMaxNanos()).reversed())
+                .limit(SLOWEST_BOTS_TO_REPORT)
+                .forEach(actor -> printMetrics(actor.label, actor.metrics));
+    }
+
+    /*
+     * Prints a single line of metrics.
+     */
+    private static void printMetrics(String name, ReplyMetrics metrics) {
+        System.out.printf(METRICS_FORMAT, name, metrics.getCount(), metrics.getMeanNanos(),
+                metrics.getPercentileNanos(MEDIAN), metrics.getPercentileNanos(TAIL), metrics.getMaxNanos());
+    }
+
+    /**
+     * main function.
+     * Runs the engine by the command line arguments, and reports its throughput and reply-time metrics.
+     *
+     * @param args the number of conversations, turns per conversation, and optionally the number of workers
+     *             the maximal length of a statement and the cycle history.
+     * @throws InterruptedException if interrupted while waiting for the conversations.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println(USAGE_MSG);
+            return;
+        }
+        int conversations = Integer.parseInt(args[0]);
+        long turnsPerConversation = Long.parseLong(args[1]);
+        int numberOfWorkers = (args.length > 2) ?
+                Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long statementCap = (args.length > 3) ? Long.parseLong(args[3]) : DEFAULT_STATEMENT_CAP;
+
+        ChatEngine engine = new ChatEngine(numberOfWorkers, statementCap);
+        if (args.length > 4) {
+            engine.setCycleHistory(Integer.parseInt(args[4]));
+        }
+        long start = System.nanoTime();
+        engine.run(conversations, turnsPerConversation);
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        CycleDetector cycles = engine.getCycleStatistics();
+        long turns = conversations * turnsPerConversation - cycles.getSkippedTurns() - engine.getLostTurns();
+        System.out.printf(REPORT_FORMAT, conversations, turns, numberOfWorkers, seconds, turns / seconds);
+        if (cycles.getCyclesCount() > 0) {
+            System.out.printf(CYCLES_FORMAT, cycles.getCyclesCount(), cycles.getShortestCycle(),
+                    cycles.getLongestCycle(), cycles.getMeanCycleLength(), cycles.getSkippedTurns());
+        }
+        if (engine.getFailedConversations() > 0) {
+            System.out.printf(FAILURES_FORMAT, engine.getFailedConversations(), engine.getLostTurns());
+        }
+        engine.printMetrics();
+    }
+
+    /*
+     * The shared state of a single conversation. Only the actor that currently holds the conversation's
+     * statement touches it, and the statement is handed over through the mailboxes, so no lock is needed.
+     */
+    private static class Conversation {
+        private final CountDownLatch finished;
+        private long turnsLeft;
+        private long turn = 0;
+        private CycleDetector cycles = null;
+
+        Conversation(long turns, CountDownLatch finished) {
+            this.turnsLeft = turns;
+            this.finished = finished;
+        }
+    }
+
+    /*
+     * A ChatterBot, its mailbox and its metrics, scheduled on the workers whenever it has messages.
+     */
+    private class Actor implements Runnable {
+        private final ChatterBot bot;
+        private final int botIndex;  // in the conversation
+        private final Conversation conversation;
+        private final String label;  // the bot's name is the same in every conversation
+        private final Mailbox<Rope> mailbox = new Mailbox<>(MAILBOX_CAPACITY);
+        private final ReplyMetrics metrics = new ReplyMetrics();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private Actor next;  // the actor that replies to this one
+
+        Actor(ChatterBot bot, int botIndex, Conversation conversation, String label) {
+            this.bot = bot;
+            this.botIndex = botIndex;
+            this.conversation = conversation;
+            this.label = label;
+        }
+
+        /*
+         * Puts a statement in this actor's mailbox, and makes sure the actor is scheduled.
+         */
+        void send(Rope statement) {
+            if (!mailbox.offer(statement)) {
+                throw new IllegalStateException("The mailbox of " + label + " is full");
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        /*
+         * Handles a batch of messages, then gives the worker up (rescheduling if messages are left).
+         */
+        @Override
+        public void run() {
+            Rope statement;
+            for (int handled = 0; handled < BATCH_SIZE && (statement = mailbox.poll()) != null; handled++) {
+                handle(statement);
+            }
+            scheduled.set(false);
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        /*
+         * Replies to a single statement, and passes the reply on, unless the conversation is over (or it has
+         * reached a cycle). A failure to reply ends the conversation, since the engine waits for all of them.
+         */
+        private void handle(Rope statement) {
+            CycleDetector cycles = conversation.cycles;
+            if (cycles != null && cycles.visit(conversation.turn++, botIndex, statement) > 0) {
+                cycles.skip(conversation.turnsLeft);
+                conversation.finished.countDown();
+                return;
+            }
+            try {
+                long start = System.nanoTime();
+                Rope reply = bot.replyTo(statement).bound(statementCap);
+                metrics.record(System.nanoTime() - start);
+                if (--conversation.turnsLeft > 0) {
+                    next.send(reply);
+                } else {
+                    conversation.finished.countDown();
+                }
+            } catch (RuntimeException e) {
+                System.err.printf(FAILURE_MSG, label, e);
+                failedConversations.incrementAndGet();
+                lostTurns.addAndGet(conversation.turnsLeft);
+                conversation.finished.countDown();
+            }
+        }
+    }
+}
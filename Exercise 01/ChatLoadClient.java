@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A load generator for the ChatServer: opens a given number of sessions on the loopback address, and keeps a
+ * given number of pipelined requests in flight on each of them for a given time.
+ * The latency of every request is measured from the moment it is queued until its reply line arrives.
+ * At the end, it reports the number of sessions, replies per second and the latency percentiles.
+ * If no port is given, it starts a ChatServer of its own, in-process.
+ * Usage: <code>java ChatLoadClient sessions seconds [pipelineDepth] [port]</code>
+ *
+ * @author Roei Dahuki
+ */
+class ChatLoadClient {
+    /* Constants: */
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int DEFAULT_PIPELINE_DEPTH = 16;
+    private static final long DEFAULT_STATEMENT_CAP = 1L << 12;
+    private static final long SELECT_TIMEOUT_MILLIS = 10;
+    private static final byte NEW_LINE = '\n';
+    private static final byte[][] REQUESTS = {  // legal and illegal requests, in turns
+            "say Hello World!\n".getBytes(StandardCharsets.UTF_8),
+            "Hello World!\n".getBytes(StandardCharsets.UTF_8)
+    };
+    private static final String USAGE_MSG =
+            "Usage: java ChatLoadClient sessions seconds [pipelineDepth] [port]";
+    private static final String REPORT_FORMAT =
+            "%d sessions, depth %d: %d replies in %.3fs, %.0f replies/sec%n" +
+                    "latency: mean %.1fus, p50 %.1fus, p99 %.1fus, p99.9 %.1fus, max %.1fus%n";
+    private static final double NANOS_PER_SECOND = 1e9, NANOS_PER_MICRO = 1e3;
+    private static final double MEDIAN = 50, TAIL = 99, FAR_TAIL = 99.9;
+
+    /* Fields: */
+    private final int pipelineDepth;
+    private final ReplyMetrics latencies = new ReplyMetrics();
+    private final List<ClientSession> sessions = new ArrayList<>();
+    private final Selector selector;
+
+    /**
+     * Constructs a load generator, and connects its sessions to the server.
+     *
+     * @param port          the port of the server, on the loopback address.
+     * @param sessions      the number of sessions to open.
+     * @param pipelineDepth the number of requests to keep in flight on every session.
+     * @throws IOException if connecting failed.
+     */
+    public ChatLoadClient(int port, int sessions, int pipelineDepth) throws IOException {
+        this.pipelineDepth = pipelineDepth;
+        this.selector = Selector.open();
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        for (int i = 0; i < sessions; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ClientSession session = new ClientSession(channel, REQUESTS[i % REQUESTS.length]);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            this.sessions.add(session);
+        }
+    }
+
+    /**
+     * Sends requests and receives replies on all sessions, for the given time. Then closes the sessions.
+     *
+     * @param nanos the time to run, in nanoseconds.
+     * @throws IOException if a session failed.
+     */
+    public void run(long nanos) throws IOException {
+        long deadline = System.nanoTime() + nanos;
+        for (ClientSession session : sessions) {
+            session.fill();
+        }
+        while (System.nanoTime() < deadline) {
+            selector.select(SELECT_TIMEOUT_MILLIS);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                ClientSession session = (ClientSession) key.attachment();
+                if (key.isReadable()) {
+                    session.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    session.write();
+                }
+            }
+        }
+        for (ClientSession session : sessions) {
+            session.channel.close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Getter for the latencies of all the replies.
+     *
+     * @return the metrics of the latencies.
+     */
+    public ReplyMetrics getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * main function.
+     * Runs a load test by the command line arguments, and reports its results.
+     *
+     * @param args the number of sessions, the seconds to run, and optionally the pipeline depth and port.
+     * @throws IOException if the test failed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println(USAGE_MSG);
+            return;
+        }
+        int sessions = Integer.parseInt(args[0]);
+        double seconds = Double.parseDouble(args[1]);
+        int pipelineDepth = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_PIPELINE_DEPTH;
+        ChatServer server = null;
+        int port;
+        if (args.length > 3) {
+            port = Integer.parseInt(args[3]);
+        } else {  // an in-process server
+            server = new ChatServer(0, DEFAULT_STATEMENT_CAP);
+            port = server.getPort();
+            Thread serverThread = new Thread(server, "chat-server");
+            serverThread.setDaemon(true);
+            serverThread.start();
+        }
+
+        ChatLoadClient client = new ChatLoadClient(port, sessions, pipelineDepth);
+        long start = System.nanoTime();
+        client.run((long) (seconds * NANOS_PER_SECOND));
+        double elapsed = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        if (server != null) {
+            server.close();
+        }
+
+        ReplyMetrics latencies = client.getLatencies();
+        System.out.printf(REPORT_FORMAT, sessions, pipelineDepth, latencies.getCount(), elapsed,
+                latencies.getCount() / elapsed, latencies.getMeanNanos() / NANOS_PER_MICRO,
+                latencies.getPercentileNanos(MEDIAN) / NANOS_PER_MICRO,
+                latencies.getPercentileNanos(TAIL) / NANOS_PER_MICRO,
+                latencies.getPercentileNanos(FAR_TAIL) / NANOS_PER_MICRO,
+                latencies.getMaxNanos() / NANOS_PER_MICRO);
+    }
+
+    /*
+     * A single session of the load generator, with its in-flight requests' send times.
+     */
+    private class ClientSession {
+        private final SocketChannel channel;
+        private final byte[] request;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final long[] sendTimes = new long[pipelineDepth];  // a ring of the in-flight requests
+        private long sent = 0, received = 0;
+        private SelectionKey key;
+
+        ClientSession(SocketChannel channel, byte[] request) {
+            this.channel = channel;
+            this.request = request;
+        }
+
+        /*
+         * Queues requests until the pipeline is full, and writes them.
+         */
+        void fill() throws IOException {
+            while (sent - received < pipelineDepth && out.remaining() >= request.length) {
+                out.put(request);
+                sendTimes[(int) (sent++ % pipelineDepth)] = System.nanoTime();
+            }
+            write();
+        }
+
+        /*
+         * Writes the queued requests, as much as the socket accepts.
+         */
+        void write() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            key.interestOps(SelectionKey.OP_READ | ((out.position() > 0) ? SelectionKey.OP_WRITE : 0));
+        }
+
+        /*
+         * Reads replies, records the latency of every complete one, and refills the pipeline.
+         */
+        void read() throws IOException {
+            in.clear();
+            if (channel.read(in) < 0) {
+                key.cancel();
+                return;
+            }
+            in.flip();
+            long now = System.nanoTime();
+            while (in.hasRemaining()) {
+                if (in.get() == NEW_LINE) {
+                    latencies.record(now - sendTimes[(int) (received++ % pipelineDepth)]);
+                }
+            }
+            fill();
+        }
+    }
+}
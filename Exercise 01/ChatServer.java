@@ -0,0 +1,342 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A non-blocking chat server, listening on the loopback address only, where every connected client gets a
+ * session with a ChatterBot of its own.
+ * The protocol is line-based UTF-8: every line the client sends is a statement, and the bot's reply to it is
+ * sent back as a single line. Requests may be pipelined - all the complete lines of a read are answered, in
+ * order, and their replies are written together.
+ * A single selector thread serves all the sessions, with direct buffers taken from a BufferPool. A session
+ * whose replies are not read by its client stops being read as well, until its pending replies are written.
+ * If a ReplyConfig file is given, the sessions' bots are configured by it (taking its bots in turns), and the
+ * file is watched - a change of the replies applies to all the sessions at once, while they keep replying.
+ * Usage: <code>java ChatServer [port] [statementCap] [configFile]</code>
+ *
+ * @author Roei Dahuki
+ */
+class ChatServer implements Runnable, AutoCloseable {
+    /* Constants: */
+    private static final int BUFFER_SIZE = 1 << 14;
+    private static final int MAX_POOLED_BUFFERS = 1 << 10;
+    private static final int MAX_PENDING_BUFFERS = 64;  // above it, a session is not read until it's written
+    private static final long DEFAULT_STATEMENT_CAP = 1L << 12;
+    private static final char NEW_LINE = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+    private static final int BOTS_TO_CHOOSE_FROM = 2;
+    private static final String LISTENING_MSG = "Chat server is listening on port %d%n";
+
+    /* Fields: */
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final BufferPool pool = new BufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+    private final long statementCap;
+    // the selector thread is the only one that decodes and encodes, so these are shared by all sessions:
+    private final CharBuffer decodedChars = CharBuffer.allocate(BUFFER_SIZE);
+    // malformed input is replaced (with U+FFFD), rather than reported - a reported error would stop the
+    // decoding at the bad bytes, which would then stay in the session's buffer forever:
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private volatile boolean running = true;
+    private long sessionsCounter = 0;
+    private ReplyConfig config = null;
+
+    /**
+     * Constructs a server and binds it to the given port of the loopback address.
+     *
+     * @param port         the port to listen on, or 0 for any free port.
+     * @param statementCap the maximal length of a statement (longer lines are truncated).
+     * @throws IOException if the server could not be bound.
+     */
+    public ChatServer(int port, long statementCap) throws IOException {
+        this.statementCap = statementCap;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Getter for the port the server listens on.
+     *
+     * @return the port of the server.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Setter for the configuration of the bots of new sessions.
+     *
+     * @param config the configuration of the bots, or null for the bots the chat generates.
+     */
+    public void setConfig(ReplyConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Runs the selector loop of the server, until it is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ((Session) key.attachment()).handle(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            closeChannels();
+        }
+    }
+
+    /**
+     * Stops the server, closing all of its sessions.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /*
+     * Accepts a pending connection, and opens a session for it.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        // the sessions alternate between the bots' kinds:
+        ChatterBot bot;
+        if (config != null) {
+            List<String> names = config.getNames();
+            bot = config.newBot(names.get((int) (sessionsCounter++ % names.size())));
+        } else {
+            int botIndex = (int) (sessionsCounter++ % BOTS_TO_CHOOSE_FROM);
+            bot = Chat.generateBots(BOTS_TO_CHOOSE_FROM)[botIndex];
+        }
+        Session session = new Session(channel, bot);
+        session.key = channel.register(selector, SelectionKey.OP_READ, session);
+    }
+
+    /*
+     * Closes the server channel, every session, and the selector.
+     */
+    private void closeChannels() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Session) {
+                ((Session) key.attachment()).close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException ignored) {
+            // nothing else to release
+        }
+    }
+
+    /**
+     * main function.
+     * Runs a server by the command line arguments, until the process is killed.
+     *
+     * @param args optionally the port, the maximal length of a statement and the path of a reply
+     *             configuration file.
+     * @throws IOException if the server could not be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 0;
+        long statementCap = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_STATEMENT_CAP;
+        ChatServer server = new ChatServer(port, statementCap);
+        if (args.length > 2) {
+            try {
+                ReplyConfig config = new ReplyConfig(Path.of(args[2]));
+                config.watch();
+                server.setConfig(config);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                server.close();
+                return;
+            }
+        }
+        System.out.printf(LISTENING_MSG, server.getPort());
+        server.run();
+    }
+
+    /*
+     * A single client's connection, with its own ChatterBot, partial line and pending replies.
+     */
+    private class Session {
+        private final SocketChannel channel;
+        private final ChatterBot bot;
+        private final ByteBuffer in = pool.acquire();
+        private final StringBuilder line = new StringBuilder();
+        private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();  // in fill mode, oldest first
+        private SelectionKey key;
+        private boolean closed = false;
+
+        Session(SocketChannel channel, ChatterBot bot) {
+            this.channel = channel;
+            this.bot = bot;
+        }
+
+        /*
+         * Handles the ready operations of the session's key.
+         */
+        void handle(SelectionKey readyKey) {
+            try {
+                if (readyKey.isReadable()) {
+                    read();
+                }
+                if (!closed) {
+                    write();  // the replies of pipelined requests are written together
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        /*
+         * Reads what is available, and answers every complete line in it.
+         */
+        private void read() throws IOException {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            in.flip();
+            CoderResult result;
+            do {  // an incomplete UTF-8 sequence is left in the buffer, for the next read
+                decodedChars.clear();
+                result = decoder.decode(in, decodedChars, false);
+                decodedChars.flip();
+                consume(decodedChars);
+            } while (result.isOverflow());
+            in.compact();
+        }
+
+        /*
+         * Appends decoded characters to the current line, replying whenever a line is complete.
+         */
+        private void consume(CharBuffer chars) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == NEW_LINE) {
+                    reply();
+                    line.setLength(0);
+                } else if (c != CARRIAGE_RETURN && line.length() < statementCap) {
+                    line.append(c);
+                }
+            }
+        }
+
+        /*
+         * Lets the bot reply to the current line, and encodes the reply into the pending buffers.
+         */
+        private void reply() {
+            Rope reply = bot.replyTo(Rope.of(line.toString())).bound(statementCap);
+            encoder.reset();
+            encode(CharBuffer.wrap(reply.toString()), false);  // a flat copy, rather than charAt per char
+            encode(CharBuffer.wrap(String.valueOf(NEW_LINE)), true);
+        }
+
+        /*
+         * Encodes the given characters into the last pending buffer, taking new ones from the pool as needed.
+         */
+        private void encode(CharBuffer chars, boolean endOfInput) {
+            ByteBuffer buffer = out.peekLast();
+            if (buffer == null) {
+                buffer = pool.acquire();
+                out.addLast(buffer);
+            }
+            while (encoder.encode(chars, buffer, endOfInput).isOverflow()) {
+                buffer = pool.acquire();
+                out.addLast(buffer);
+            }
+            if (endOfInput) {
+                while (encoder.flush(buffer).isOverflow()) {
+                    buffer = pool.acquire();
+                    out.addLast(buffer);
+                }
+            }
+        }
+
+        /*
+         * Writes as many pending buffers as the socket accepts, and updates the session's interest.
+         */
+        private void write() throws IOException {
+            while (!out.isEmpty()) {
+                ByteBuffer buffer = out.peekFirst();
+                buffer.flip();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    buffer.compact();  // back to fill mode, with the unwritten bytes first
+                    break;
+                }
+                pool.release(out.pollFirst());
+            }
+            int interest = (out.isEmpty() ? 0 : SelectionKey.OP_WRITE) |
+                    (out.size() < MAX_PENDING_BUFFERS ? SelectionKey.OP_READ : 0);
+            key.interestOps(interest);
+        }
+
+        /*
+         * Closes the connection, and returns the session's buffers to the pool.
+         */
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the session is gone anyway
+            }
+            pool.release(in);
+            for (ByteBuffer buffer : out) {
+                pool.release(buffer);
+            }
+            out.clear();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * A non-interactive (batch) version of the chat: runs a given number of turns between the ChatterBots as
+ * fast as possible, without waiting for "Enter", and writes them through a buffered sink - stdout, a null
+ * sink that only counts the produced bytes, or a TranscriptLog in a given directory (<code>log:DIR</code>).
+ * At the end, it reports the number of turns per second and the number of bytes produced, to stderr.
+ * If a (positive) cache size is given, the bots share a ReplyCache of that size, and its hit rate is reported
+ * as well. If a corpus file is given, the bots reply to illegal requests by a MarkovModel trained from it.
+ * Usage: <code>java ChatSimulation turns [stdout|null|log:DIR] [statementCap] [cacheSize] [corpus]</code>
+ *
+ * @author Roei Dahuki
+ */
+class ChatSimulation {
+    /* Constants: */
+    private static final int NUMBER_OF_BOTS = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String NULL_SINK = "null";
+    private static final String LOG_SINK_PREFIX = "log:";
+    private static final long CONVERSATION = 0;  // the id of the simulated conversation in a transcript
+    private static final String REPORT_FORMAT =
+            "%d turns in %.3fs: %.0f turns/sec, %d bytes produced (%.1f MB/sec)%n";
+    private static final String CACHE_REPORT_FORMAT =
+            "reply cache: %d hits, %d misses (%.1f%% hit rate), %d evictions%n";
+    private static final String USAGE_MSG =
+            "Usage: java ChatSimulation turns [stdout|null|log:DIR] [statementCap] [cacheSize] [corpus]";
+    private static final String MODEL_REPORT_FORMAT = "Markov model: %d words, %d transitions%n";
+    private static final int MAX_CACHED_STATEMENT_LENGTH = 1 << 10;
+    private static final int MAX_GENERATED_WORDS = 30;
+    private static final double PERCENT = 100;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double BYTES_PER_MB = 1 << 20;
+
+    /* Fields: */
+    private final ChatterBot[] bots;
+    private final long statementCap;
+    private Rope statement = Rope.of(Chat.INIT_STATEMENT);
+    private TranscriptLog transcript = null;
+
+    /**
+     * Constructs a simulation of a chat between the given bots.
+     *
+     * @param bots         the ChatterBots of the chat, in the order of their turns.
+     * @param statementCap the maximal length of a statement.
+     */
+    public ChatSimulation(ChatterBot[] bots, long statementCap) {
+        this.bots = bots;
+        this.statementCap = statementCap;
+    }
+
+    /**
+     * Setter for the transcript of the simulation.
+     *
+     * @param transcript a transcript to append the turns to instead of the output of <code>run</code>, or
+     *                   null to write them into that output.
+     */
+    public void setTranscript(TranscriptLog transcript) {
+        this.transcript = transcript;
+    }
+
+    /**
+     * Runs the given number of turns, writing each one (in its own line) into the given output, or appending
+     * it to the transcript.
+     *
+     * @param turns the number of turns to run.
+     * @param out   the output to write the turns into.
+     * @throws IOException if the output failed.
+     */
+    public void run(long turns, Writer out) throws IOException {
+        for (long turn = 0; turn < turns; turn++) {
+            int botId = (int) (turn % bots.length);
+            ChatterBot bot = bots[botId];
+            statement = bot.replyTo(statement).bound(statementCap);
+            if (transcript != null) {
+                transcript.append(CONVERSATION, turn, botId, statement);
+                continue;
+            }
+            Chat.writeTurn(out, bot.getName(), statement);
+            out.write(System.lineSeparator());
+        }
+        out.flush();
+    }
+
+    /**
+     * main function.
+     * Runs the simulation by the command line arguments, and reports its throughput.
+     *
+     * @param args the number of turns, optionally the sink (stdout, null or log:DIR), the maximal statement
+     *             length, the size of the reply cache and the path of a corpus.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println(USAGE_MSG);
+            return;
+        }
+        long turns = Long.parseLong(args[0]);
+        boolean logSink = (args.length > 1) && args[1].startsWith(LOG_SINK_PREFIX);
+        boolean nullSink = (args.length > 1) && (logSink || args[1].equalsIgnoreCase(NULL_SINK));
+        long statementCap = (args.length > 2) ? Long.parseLong(args[2]) : Chat.DEFAULT_STATEMENT_CAP;
+
+        CountingOutputStream sink = new CountingOutputStream(
+                nullSink ? OutputStream.nullOutputStream() : System.out);
+        Writer out = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ChatterBot[] bots = Chat.generateBots(NUMBER_OF_BOTS);
+        ReplyCache cache = null;
+        if (args.length > 3 && Integer.parseInt(args[3]) > 0) {
+            cache = new ReplyCache(Integer.parseInt(args[3]), MAX_CACHED_STATEMENT_LENGTH);
+            for (ChatterBot bot : bots) {
+                bot.setReplyCache(cache);
+            }
+        }
+        if (args.length > 4) {
+            try {
+                MarkovModel model = MarkovModel.train(Path.of(args[4]), MAX_GENERATED_WORDS);
+                System.err.printf(MODEL_REPORT_FORMAT, model.getVocabularySize(), model.getTransitionsCount());
+                for (ChatterBot bot : bots) {
+                    bot.setReplyGenerator(model);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+        }
+        ChatSimulation simulation = new ChatSimulation(bots, statementCap);
+
+        long start = System.nanoTime();
+        long bytes;
+        try {
+            if (logSink) {
+                Path directory = Path.of(args[1].substring(LOG_SINK_PREFIX.length()));
+                try (TranscriptLog transcript =
+                             new TranscriptLog(directory, TranscriptLog.DEFAULT_SEGMENT_SIZE)) {
+                    simulation.setTranscript(transcript);
+                    simulation.run(turns, out);
+                    bytes = transcript.getBytesWritten();
+                }
+            } else {
+                simulation.run(turns, out);
+                bytes = sink.getCount();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        System.err.printf(REPORT_FORMAT, turns, seconds, turns / seconds, bytes,
+                bytes / BYTES_PER_MB / seconds);
+        if (cache != null) {
+            System.err.printf(CACHE_REPORT_FORMAT, cache.getHits(), cache.getMisses(),
+                    cache.getHitRate() * PERCENT, cache.getEvictions());
+        }
+    }
+
+    /*
+     * An output stream that counts the bytes that pass through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
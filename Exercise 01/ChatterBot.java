@@ -1,4 +1,5 @@
 import java.util.Random;
+import java.util.function.Supplier;
 
 /**
  * An edited version of the base file for the ChatterBot exercise.
@@ -8,6 +9,16 @@ import java.util.Random;
  * The response may use the given statement, by replacing it with one of the constants:
  * <code>PLACEHOLDER_FOR_REQUESTED_PHRASE</code> or <code>PLACEHOLDER_FOR_ILLEGAL_REQUEST</code>, if they
  * appear in the selected reply.
+ * The replies are compiled once, in the constructor, into <code>ReplyTemplate</code>s, so every reply is
+ * rendered by a single linear copy into a reusable builder. The compiled replies are immutable
+ * <code>ReplyRules</code>, which may be shared by many bots, and replaced while they reply (see
+ * <code>ReplyConfig</code>).
+ * Besides the <code>REQUEST_PREFIX</code> request, a bot may understand more intents (other command prefixes,
+ * or keywords), each with its own replies. All of them are matched together by an <code>IntentMatcher</code>,
+ * so the cost of dispatching a statement is linear in its length, no matter how many intents there are.
+ * A bot may be given a <code>ReplyCache</code>, which keeps its replies to recurring statements, and a
+ * <code>ReplyGenerator</code> (such as a <code>MarkovModel</code>), which replies to the statements that
+ * match none of its intents instead of its fixed replies to illegal requests.
  *
  * @author Dan Nirel
  * @editor Roei Dahuki
@@ -32,8 +43,10 @@ class ChatterBot {
     /* Fields: */
     private String name;
     private Random rand = new Random();
-    private String[] legalRequestsReplies;
-    private String[] repliesToIllegalRequest;
+    private final Supplier<ReplyRules> rules;  // read once per reply, and may be swapped at any time
+    private final StringBuilder replyBuilder = new StringBuilder();  // reused by every reply
+    private ReplyCache replyCache = null;  // no cache, by default
+    private ReplyGenerator replyGenerator = null;  // the fixed replies to illegal requests, by default
 
     /**
      * Constructs an object of the <code>ChatterBot</code> class.
@@ -41,15 +54,31 @@ class ChatterBot {
      * @param name                    the name of this bot.
      * @param repliesToLegalRequest   an array of possible replies for the bot to answer to legal requests.
      * @param repliesToIllegalRequest an array of possible replies for the bot to answer to illegal requests.
+     * @param intents                 more intents the bot understands, besides the REQUEST_PREFIX requests
+     *                                (a statement that matches none of them is an illegal request).
      */
-    public ChatterBot(String name, String[] repliesToLegalRequest, String[] repliesToIllegalRequest) {
+    public ChatterBot(String name, String[] repliesToLegalRequest, String[] repliesToIllegalRequest,
+                      Intent... intents) {
+        this(name, fixedRules(new ReplyRules(repliesToLegalRequest, repliesToIllegalRequest, intents)));
+    }
+
+    /**
+     * Constructs a ChatterBot whose replies are the current rules of the given supplier, which may be shared
+     * with other bots, and swapped while they reply.
+     *
+     * @param name  the name of this bot.
+     * @param rules a supplier of the current compiled replies.
+     */
+    ChatterBot(String name, Supplier<ReplyRules> rules) {
         this.name = name;
-        this.legalRequestsReplies = new String[repliesToLegalRequest.length];
-        System.arraycopy(repliesToLegalRequest, 0,
-                this.legalRequestsReplies, 0, repliesToLegalRequest.length);
-        this.repliesToIllegalRequest = new String[repliesToIllegalRequest.length];
-        System.arraycopy(repliesToIllegalRequest, 0,
-                this.repliesToIllegalRequest, 0, repliesToIllegalRequest.length);
+        this.rules = rules;
+    }
+
+    /*
+     * Creates a supplier of rules that are never swapped.
+     */
+    private static Supplier<ReplyRules> fixedRules(ReplyRules rules) {
+        return () -> rules;
     }
 
     /**
@@ -61,6 +90,25 @@ class ChatterBot {
         return name;
     }
 
+    /**
+     * Setter for the cache of the ChatterBot's replies, which may be shared with other bots that reply on
+     * the same thread.
+     *
+     * @param replyCache the cache to use, or null to reply without a cache.
+     */
+    public void setReplyCache(ReplyCache replyCache) {
+        this.replyCache = replyCache;
+    }
+
+    /**
+     * Setter for the generator of the ChatterBot's replies to the statements that match none of its intents.
+     *
+     * @param replyGenerator the generator to use, or null to use the fixed replies to illegal requests.
+     */
+    public void setReplyGenerator(ReplyGenerator replyGenerator) {
+        this.replyGenerator = replyGenerator;
+    }
+
     /**
      * Generate and return the reply of a ChatterBot to the statement it receives.
      *
@@ -68,10 +116,17 @@ class ChatterBot {
      * @return the generated response.
      */
     public String replyTo(String statement) {
-        if (statement.startsWith(REQUEST_PREFIX)) {
-            return replyToLegalRequest(statement);
+        ReplyRules current = rules.get();
+        if (replyCache != null && replyCache.accepts(statement.length())) {
+            return replyFromCache(current, statement);
         }
-        return replyToIllegalRequest(statement);
+        Intent intent = current.getIntentMatcher().match(statement);
+        if (intent == null) {
+            return (replyGenerator != null) ?
+                    replyGenerator.generate(statement, rand, replyBuilder).toString() :
+                    replaceInARandomTemplate(current.getIllegalRequestTemplates(), statement);
+        }
+        return replaceInARandomTemplate(intent.getTemplates(), intent.phraseOf(statement));
     }
 
     /**
@@ -84,9 +139,9 @@ class ChatterBot {
      */
     public String replyToLegalRequest(String statement) {
         // we don’t repeat the request prefix, so delete it from the replied phrase:
-        String phrase = statement.replaceFirst(REQUEST_PREFIX, "");
-        return replacePlaceholderInARandomPattern(legalRequestsReplies, PLACEHOLDER_FOR_REQUESTED_PHRASE,
-                phrase);
+        String phrase = statement.startsWith(REQUEST_PREFIX) ?
+                statement.substring(REQUEST_PREFIX.length()) : statement;
+        return replaceInARandomTemplate(rules.get().getLegalRequestsTemplates(), phrase);
     }
 
     /**
@@ -98,13 +153,71 @@ class ChatterBot {
      * @return the generated response.
      */
     public String replyToIllegalRequest(String statement) {
-        return replacePlaceholderInARandomPattern(repliesToIllegalRequest, PLACEHOLDER_FOR_ILLEGAL_REQUEST,
-                statement);
+        return replaceInARandomTemplate(rules.get().getIllegalRequestTemplates(), statement);
+    }
+
+    /*
+     * Generates a response - first chooses randomly one of the given compiled templates, then renders it
+     * with the given string <code>replacer</code> in the reusable builder.
+     *
+     * @param templates the compiled templates to choose randomly from.
+     * @param replacer  the string to put instead of every placeholder of the chosen template.
+     * @return the generated response.
+     */
+    private String replaceInARandomTemplate(ReplyTemplate[] templates, String replacer) {
+        int randomIndex = rand.nextInt(templates.length);
+        return templates[randomIndex].renderTo(replyBuilder, replacer).toString();
+    }
+
+    /*
+     * Generates a response using the cache - the random choice of a template is made as without a cache, and
+     * only the rendering of the chosen template (if it was chosen before) is taken from the cache.
+     * Generated replies are not cached, as they should vary (and their lookups don't count as misses).
+     */
+    private String replyFromCache(ReplyRules current, String statement) {
+        ReplyCache.Entry entry = replyCache.get(current, statement);
+        if (entry == null) {
+            Intent intent = current.getIntentMatcher().match(statement);
+            if (intent == null && replyGenerator != null) {
+                return replyGenerator.generate(statement, rand, replyBuilder).toString();
+            }
+            entry = (intent == null) ?
+                    replyCache.put(current, statement, current.getIllegalRequestTemplates(), statement) :
+                    replyCache.put(current, statement, intent.getTemplates(), intent.phraseOf(statement));
+        }
+        return entry.render(rand.nextInt(entry.getTemplatesCount()), replyBuilder);
+    }
+
+    /**
+     * Generate and return the reply of a ChatterBot to the statement it receives, as a rope.
+     * The reply references the given statement instead of copying it, so (unless the bot has keyword
+     * intents, which are searched in the whole statement) its cost doesn't depend on the statement's length.
+     * If the bot has a cache, short statements are flattened and replied to through the cache.
+     *
+     * @param statement a rope to reply to.
+     * @return the generated response.
+     */
+    public Rope replyTo(Rope statement) {
+        ReplyRules current = rules.get();
+        if (replyCache != null && replyCache.accepts(statement.longLength())) {
+            return Rope.of(replyFromCache(current, statement.toString()));
+        }
+        Intent intent = current.getIntentMatcher().match(statement);
+        if (intent == null) {
+            if (replyGenerator != null) {
+                return Rope.of(replyGenerator.generate(statement, rand, replyBuilder).toString());
+            }
+            ReplyTemplate[] illegalRequestTemplates = current.getIllegalRequestTemplates();
+            return illegalRequestTemplates[rand.nextInt(illegalRequestTemplates.length)].render(statement);
+        }
+        ReplyTemplate[] templates = intent.getTemplates();
+        return templates[rand.nextInt(templates.length)].render(intent.phraseOf(statement));
     }
 
     /**
      * Generates a response - first chooses randomly a format out of the given <code>repliesPatterns</code>,
      * then replace all <code>placeholder</code>'s appearances with the given string <code>replacer</code>.
+     * The replacement is literal, so any character in <code>replacer</code> is copied as is.
      *
      * @param repliesPatterns an array of the patterns to choose randomly a format from.
      * @param placeholder     the string that may appear in the random pattern and shall be replaced.
@@ -116,6 +229,6 @@ class ChatterBot {
         int randomIndex = rand.nextInt(repliesPatterns.length);
         String responsePattern = repliesPatterns[randomIndex];  // choosing randomly a response
         // replace the placeholder with given replacer string:
-        return responsePattern.replaceAll(placeholder, replacer);
+        return responsePattern.replace(placeholder, replacer);
     }
 }
@@ -0,0 +1,130 @@
+import java.util.HashMap;
+
+/**
+ * Detects a conversation that revisits a prior state - the same bot about to reply to the same statement.
+ * The replies are drawn at random, but their distribution depends only on the bot and the statement - so
+ * from a revisited state the conversation repeats the same distribution of turns it already went through
+ * (not necessarily the same turns), and continuing it adds nothing new: it is considered a cycle.
+ * A state is identified by the rope fingerprint of the statement, its length and the bot's index, and only
+ * the states of the last given number of turns are remembered. Equal fingerprints of different statements
+ * are possible, though very unlikely.
+ * It also keeps statistics of the detected cycles, which may be merged between conversations.
+ *
+ * @author Roei Dahuki
+ */
+class CycleDetector {
+    /* Constants: */
+    private static final long LENGTH_MIX = 0xC2B2AE3D27D4EB4FL;
+    private static final long STATE_MIX = 0x165667B19E3779F9L;
+
+    /* Fields: */
+    private final HashMap<Long, Long> lastVisits = new HashMap<>();  // state -> the turn it was last visited
+    private final long[] history;  // the states of the last turns, by turn modulo its length
+    private long cycles = 0, totalCycleLength = 0, shortestCycle = Long.MAX_VALUE, longestCycle = 0;
+    private long skippedTurns = 0;
+
+    /**
+     * Constructs a detector with no visited states.
+     *
+     * @param historySize the number of last turns whose states are remembered.
+     */
+    public CycleDetector(int historySize) {
+        this.history = new long[historySize];
+    }
+
+    /**
+     * Visits the state of a turn, and checks whether it was visited in the remembered turns.
+     * The turns of a conversation should be visited in increasing order.
+     *
+     * @param turn      the number of the turn.
+     * @param botIndex  the index of the bot that replies in this turn.
+     * @param statement the statement it replies to.
+     * @return the length of the cycle (the number of turns since the last visit of the state), or 0 if the
+     * state is new.
+     */
+    public long visit(long turn, int botIndex, Rope statement) {
+        long state = (statement.fingerprint() ^ (statement.longLength() * LENGTH_MIX)) * STATE_MIX + botIndex;
+        int slot = (int) (turn % history.length);
+        if (turn >= history.length) {  // forget the state of the turn that leaves the history
+            lastVisits.remove(history[slot], turn - history.length);
+        }
+        history[slot] = state;
+        Long lastVisit = lastVisits.put(state, turn);
+        if (lastVisit == null) {
+            return 0;
+        }
+        long cycleLength = turn - lastVisit;
+        cycles++;
+        totalCycleLength += cycleLength;
+        shortestCycle = Math.min(shortestCycle, cycleLength);
+        longestCycle = Math.max(longestCycle, cycleLength);
+        return cycleLength;
+    }
+
+    /**
+     * Records turns that were not run, since the conversation was in a cycle.
+     *
+     * @param turns the number of skipped turns.
+     */
+    public void skip(long turns) {
+        skippedTurns += turns;
+    }
+
+    /**
+     * Adds the statistics of another detector to the statistics of this one.
+     *
+     * @param other the detector to merge.
+     */
+    public void merge(CycleDetector other) {
+        cycles += other.cycles;
+        totalCycleLength += other.totalCycleLength;
+        shortestCycle = Math.min(shortestCycle, other.shortestCycle);
+        longestCycle = Math.max(longestCycle, other.longestCycle);
+        skippedTurns += other.skippedTurns;
+    }
+
+    /**
+     * Getter for the number of detected cycles.
+     *
+     * @return the number of revisited states.
+     */
+    public long getCyclesCount() {
+        return cycles;
+    }
+
+    /**
+     * Calculates the mean length of the detected cycles.
+     *
+     * @return the mean length in turns, or 0 if no cycle was detected.
+     */
+    public double getMeanCycleLength() {
+        return (cycles == 0) ? 0 : (double) totalCycleLength / cycles;
+    }
+
+    /**
+     * Getter for the length of the shortest detected cycle.
+     *
+     * @return the shortest length in turns, or 0 if no cycle was detected.
+     */
+    public long getShortestCycle() {
+        return (cycles == 0) ? 0 : shortestCycle;
+    }
+
+    /**
+     * Getter for the length of the longest detected cycle.
+     *
+     * @return the longest length in turns, or 0 if no cycle was detected.
+     */
+    public long getLongestCycle() {
+        return longestCycle;
+    }
+
+    /**
+     * Getter for the number of skipped turns.
+     *
+     * @return the number of turns that were not run, since their conversations were in cycles.
+     */
+    public long getSkippedTurns() {
+        return skippedTurns;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * A kind of statement a ChatterBot understands, together with its own pool of replies.
+ * A prefix intent (such as the bot's "say " request) matches statements that start with its trigger, and its
+ * phrase is the rest of the statement. A keyword intent matches statements that contain its trigger anywhere,
+ * and its phrase is the whole statement. In both cases, the phrase replaces
+ * <code>ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE</code> in the chosen reply.
+ *
+ * @author Roei Dahuki
+ */
+class Intent {
+    /**
+     * The kinds of intents, by the place their trigger should appear in a statement.
+     */
+    public enum Kind {
+        /**
+         * The trigger should be at the start of the statement.
+         */
+        PREFIX,
+
+        /**
+         * The trigger may be anywhere in the statement.
+         */
+        KEYWORD
+    }
+
+    /* Fields: */
+    private final Kind kind;
+    private final String trigger;
+    private final ReplyTemplate[] templates;
+
+    /**
+     * Constructs an intent, compiling its replies.
+     *
+     * @param kind    where the trigger should appear in a statement.
+     * @param trigger the (non-empty) string that identifies the intent.
+     * @param replies the patterns of the replies to this intent.
+     */
+    public Intent(Kind kind, String trigger, String[] replies) {
+        if (trigger.isEmpty()) {
+            throw new IllegalArgumentException("The trigger of an intent can't be empty");
+        }
+        this.kind = kind;
+        this.trigger = trigger;
+        this.templates = ReplyTemplate.compileAll(replies, ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE);
+    }
+
+    /**
+     * Getter for the kind of the intent.
+     *
+     * @return the kind of the intent.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Getter for the trigger of the intent.
+     *
+     * @return the trigger of the intent.
+     */
+    public String getTrigger() {
+        return trigger;
+    }
+
+    /**
+     * Getter for the compiled replies of the intent.
+     *
+     * @return the templates of the replies.
+     */
+    ReplyTemplate[] getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Extracts the phrase to reply with from a statement that matched this intent.
+     *
+     * @param statement the matched statement.
+     * @return the phrase to put in the reply.
+     */
+    public String phraseOf(String statement) {
+        return (kind == Kind.PREFIX) ? statement.substring(trigger.length()) : statement;
+    }
+
+    /**
+     * Extracts the phrase to reply with from a statement that matched this intent, sharing its segments.
+     *
+     * @param statement the matched statement.
+     * @return the phrase to put in the reply.
+     */
+    public Rope phraseOf(Rope statement) {
+        return (kind == Kind.PREFIX) ? statement.subRope(trigger.length()) : statement;
+    }
+}
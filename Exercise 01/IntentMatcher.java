@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Finds the intent of a statement, among any number of registered intents, in a single pass over the
+ * statement: the triggers of all intents are compiled into an Aho-Corasick automaton (a trie whose missing
+ * transitions are resolved in advance into a transitions table), so every character costs one table lookup,
+ * no matter how many intents there are.
+ * A prefix intent is preferred over a keyword intent, a longer prefix over a shorter one, and a keyword that
+ * ends earlier in the statement over one that ends later (ties are broken by the order of registration).
+ * If there are no keyword intents, the scan stops after the longest prefix.
+ *
+ * @author Roei Dahuki
+ */
+class IntentMatcher {
+    /* Constants: */
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int ASCII_SIZE = 128;
+    private static final int OTHER_CLASS = 0;  // the class of every character that isn't in any trigger
+
+    /* Fields: */
+    private final Intent[] intents;
+    private final char[] alphabet;  // the sorted characters of all triggers; alphabet[i] is of class i+1
+    private final int[] asciiClasses = new int[ASCII_SIZE];  // a direct lookup of the class of ASCII chars
+    private final int[][] transitions;  // [state][class] -> state
+    private final int[] depths;  // the length of the trie path of every state
+    private final int[] prefixIntents;  // the prefix intent whose trigger is exactly the state's path
+    private final int[] keywordIntents;  // the first keyword intent whose trigger is a suffix of the path
+    private final int maxPrefixLength;
+    private final boolean hasKeywords;
+
+    /**
+     * Compiles the triggers of the given intents.
+     *
+     * @param intents the intents to match, in the order of their priority for ties.
+     */
+    public IntentMatcher(Intent[] intents) {
+        this.intents = intents.clone();
+        TreeSet<Character> characters = new TreeSet<>();
+        int longestPrefix = 0;
+        boolean keywords = false;
+        for (Intent intent : intents) {
+            for (char c : intent.getTrigger().toCharArray()) {
+                characters.add(c);
+            }
+            if (intent.getKind() == Intent.Kind.PREFIX) {
+                longestPrefix = Math.max(longestPrefix, intent.getTrigger().length());
+            } else {
+                keywords = true;
+            }
+        }
+        maxPrefixLength = longestPrefix;
+        hasKeywords = keywords;
+        alphabet = new char[characters.size()];
+        int index = 0;
+        for (char c : characters) {
+            alphabet[index++] = c;
+            if (c < ASCII_SIZE) {
+                asciiClasses[c] = index;
+            }
+        }
+
+        // build the trie:
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> depthsList = new ArrayList<>();
+        trie.add(newRow());
+        depthsList.add(0);
+        int[] ends = new int[intents.length];  // the state where the trigger of every intent ends
+        for (int i = 0; i < intents.length; i++) {
+            int state = ROOT;
+            for (char c : intents[i].getTrigger().toCharArray()) {
+                int charClass = classOf(c);
+                if (trie.get(state)[charClass] == NONE) {
+                    trie.get(state)[charClass] = trie.size();
+                    trie.add(newRow());
+                    depthsList.add(depthsList.get(state) + 1);
+                }
+                state = trie.get(state)[charClass];
+            }
+            ends[i] = state;
+        }
+        transitions = trie.toArray(new int[0][]);
+        depths = depthsList.stream().mapToInt(Integer::intValue).toArray();
+        prefixIntents = new int[transitions.length];
+        keywordIntents = new int[transitions.length];
+        Arrays.fill(prefixIntents, NONE);
+        Arrays.fill(keywordIntents, NONE);
+        for (int i = intents.length - 1; i >= 0; i--) {  // backwards, so the first registered intent wins
+            int[] outputs = (intents[i].getKind() == Intent.Kind.PREFIX) ? prefixIntents : keywordIntents;
+            outputs[ends[i]] = i;
+        }
+        resolveFailures();
+    }
+
+    /*
+     * Creates a row of the transitions table, with no transitions.
+     */
+    private int[] newRow() {
+        int[] row = new int[alphabet.length + 1];
+        Arrays.fill(row, NONE);
+        return row;
+    }
+
+    /*
+     * Replaces every missing transition by the transition of the state's failure (the longest proper suffix
+     * of its path that is also in the trie), and merges the keyword outputs along the failures, in BFS order.
+     */
+    private void resolveFailures() {
+        int[] failures = new int[transitions.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int charClass = 0; charClass < transitions[ROOT].length; charClass++) {
+            int child = transitions[ROOT][charClass];
+            if (child == NONE) {
+                transitions[ROOT][charClass] = ROOT;
+            } else {
+                failures[child] = ROOT;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failure = failures[state];
+            if (keywordIntents[state] == NONE || (keywordIntents[failure] != NONE &&
+                    keywordIntents[failure] < keywordIntents[state])) {
+                keywordIntents[state] = keywordIntents[failure];
+            }
+            for (int charClass = 0; charClass < transitions[state].length; charClass++) {
+                int child = transitions[state][charClass];
+                if (child == NONE) {
+                    transitions[state][charClass] = transitions[failure][charClass];
+                } else {
+                    failures[child] = transitions[failure][charClass];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /*
+     * Returns the class of a character: its index in the alphabet plus 1, or OTHER_CLASS.
+     */
+    private int classOf(char c) {
+        if (c < ASCII_SIZE) {
+            return asciiClasses[c];
+        }
+        int index = Arrays.binarySearch(alphabet, c);
+        return (index < 0) ? OTHER_CLASS : index + 1;
+    }
+
+    /**
+     * Finds the intent of the given statement.
+     *
+     * @param statement the statement.
+     * @return the matching intent, or null if no intent matches.
+     */
+    public Intent match(String statement) {
+        Scan scan = new Scan();
+        for (int i = 0; i < statement.length() && !scan.done; i++) {
+            scan.feed(statement.charAt(i));
+        }
+        return scan.result();
+    }
+
+    /**
+     * Finds the intent of the given statement, streaming its segments (only its prefix, if there are no
+     * keyword intents).
+     *
+     * @param statement the statement.
+     * @return the matching intent, or null if no intent matches.
+     */
+    public Intent match(Rope statement) {
+        Scan scan = new Scan();
+        Rope scanned = hasKeywords ?
+                statement : statement.subRope(0, Math.min(statement.longLength(), maxPrefixLength));
+        try {
+            scanned.writeTo(scan);
+        } catch (IOException e) {
+            throw new AssertionError(e);  // Scan never throws IOException
+        }
+        return scan.result();
+    }
+
+    /*
+     * The state of a single scan of a statement, fed character after character.
+     */
+    private class Scan implements Appendable {
+        private int state = ROOT;
+        private int position = 0;
+        private int bestPrefix = NONE;
+        private int firstKeyword = NONE;
+        private boolean done = false;
+
+        /*
+         * Advances the automaton by a single character.
+         */
+        void feed(char c) {
+            state = transitions[state][classOf(c)];
+            position++;
+            if (depths[state] == position && prefixIntents[state] != NONE) {  // the whole input is a prefix
+                bestPrefix = prefixIntents[state];
+            }
+            if (firstKeyword == NONE) {
+                firstKeyword = keywordIntents[state];
+            }
+            done = (position >= maxPrefixLength) && (firstKeyword != NONE || !hasKeywords);
+        }
+
+        /*
+         * Returns the best intent found so far.
+         */
+        Intent result() {
+            if (bestPrefix != NONE) {
+                return intents[bestPrefix];
+            }
+            return (firstKeyword != NONE) ? intents[firstKeyword] : null;
+        }
+
+        @Override
+        public Appendable append(CharSequence chars) {
+            return append(chars, 0, chars.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence chars, int start, int end) {
+            for (int i = start; i < end && !done; i++) {
+                feed(chars.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (!done) {
+                feed(c);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free mailbox for passing messages from a single producer thread to a single consumer
+ * thread at a time (a single-producer single-consumer ring buffer).
+ * The producer only writes the tail, and the consumer only writes the head, each with an ordered store, so
+ * neither of them ever waits for a lock or retries a compare-and-set.
+ *
+ * @param <T> the type of the messages.
+ * @author Roei Dahuki
+ */
+class Mailbox<T> {
+    /* Fields: */
+    private final Object[] buffer;
+    private final int mask;  // capacity - 1, where the capacity is a power of 2
+    private final AtomicLong head = new AtomicLong();  // the index of the next message to poll
+    private final AtomicLong tail = new AtomicLong();  // the index of the next message to offer
+
+    /**
+     * Constructs an empty mailbox, of at least the given capacity.
+     *
+     * @param capacity the minimal number of messages the mailbox can hold (rounded up to a power of 2).
+     */
+    public Mailbox(int capacity) {
+        int roundedCapacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.buffer = new Object[roundedCapacity];
+        this.mask = roundedCapacity - 1;
+    }
+
+    /**
+     * Adds a message to the mailbox, if it isn't full. Must be called only by the producer.
+     *
+     * @param message the message to add.
+     * @return true if the message was added, false if the mailbox is full.
+     */
+    public boolean offer(T message) {
+        long currentTail = tail.get();
+        if (currentTail - head.get() == buffer.length) {
+            return false;
+        }
+        buffer[(int) (currentTail & mask)] = message;
+        tail.lazySet(currentTail + 1);  // publishes the message to the consumer
+        return true;
+    }
+
+    /**
+     * Removes the oldest message from the mailbox. Must be called only by the consumer.
+     *
+     * @return the oldest message, or null if the mailbox is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long currentHead = head.get();
+        if (currentHead == tail.get()) {
+            return null;
+        }
+        int index = (int) (currentHead & mask);
+        T message = (T) buffer[index];
+        buffer[index] = null;  // so the mailbox doesn't keep the message alive
+        head.lazySet(currentHead + 1);  // frees the slot for the producer
+        return message;
+    }
+
+    /**
+     * Checks whether the mailbox is empty.
+     *
+     * @return true if there are no messages in the mailbox, false otherwise.
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
@@ -0,0 +1,313 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A word-level Markov chain, trained from a text corpus, that generates replies.
+ * A reply continues the last word of the statement (or, if the model doesn't know it, starts a new
+ * sentence), and goes on word after word until the end of a sentence or a maximal number of words.
+ * <p>
+ * The words are interned to int ids, and the transitions are kept in primitive arrays in a compressed
+ * sparse rows layout: the successors of word <code>w</code> are in
+ * <code>[rowStarts[w], rowStarts[w+1])</code>.
+ * Every row has an alias table (Vose's method), so sampling a successor costs two random numbers, no matter
+ * how many successors there are. The last word of a statement is looked up in an open-addressing table of
+ * the words, directly on the statement's characters - so generating a reply allocates nothing but its text.
+ *
+ * @author Roei Dahuki
+ */
+class MarkovModel implements ReplyGenerator {
+    /* Constants: */
+    private static final int BOUNDARY = 0;  // the id of the start (and end) of a sentence
+    private static final String SENTENCE_ENDS = ".!?";
+    private static final int EMPTY_SLOT = 0;  // the boundary is never looked up, so its id marks empty slots
+    private static final int HASH_MULTIPLIER = 31;
+    private static final String WORDS_DELIMITER = "\\s+";
+    private static final char SPACE = ' ';
+    private static final String EMPTY_CORPUS_MSG = "The corpus has no words";
+
+    /* Fields: */
+    private final String[] words;  // by id
+    private final int[] slots;  // an open-addressing table of the words' ids
+    private final int[] rowStarts;
+    private final int[] successors;
+    private final double[] probabilities;  // the probability to keep the successor, rather than its alias
+    private final int[] aliases;
+    private final int maxWords;
+
+    /*
+     * Constructs a model of the given words and transitions.
+     *
+     * @param words       the words, by id.
+     * @param transitions the transitions of the corpus, each as (from << 32 | to), in any order.
+     * @param maxWords    the maximal number of words in a reply.
+     */
+    private MarkovModel(String[] words, long[] transitions, int maxWords) {
+        this.words = words;
+        this.maxWords = maxWords;
+        this.slots = new int[Integer.highestOneBit(Math.max(1, words.length - 1)) << 2];
+        for (int id = BOUNDARY + 1; id < words.length; id++) {
+            int slot = hash(words[id], 0, words[id].length()) & (slots.length - 1);
+            while (slots[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            slots[slot] = id;
+        }
+
+        // count every distinct transition, in rows:
+        Arrays.sort(transitions);
+        int distinct = 0;
+        for (int i = 0; i < transitions.length; i++) {
+            if (i == 0 || transitions[i] != transitions[i - 1]) {
+                distinct++;
+            }
+        }
+        this.rowStarts = new int[words.length + 1];
+        this.successors = new int[distinct];
+        this.probabilities = new double[distinct];
+        this.aliases = new int[distinct];
+        int[] counts = new int[distinct];
+        int edge = -1;
+        for (int i = 0; i < transitions.length; i++) {
+            if (i == 0 || transitions[i] != transitions[i - 1]) {
+                edge++;
+                successors[edge] = (int) transitions[i];
+                rowStarts[(int) (transitions[i] >>> Integer.SIZE) + 1]++;
+            }
+            counts[edge]++;
+        }
+        for (int id = 0; id < words.length; id++) {
+            rowStarts[id + 1] += rowStarts[id];
+        }
+        for (int id = 0; id < words.length; id++) {
+            buildAliasTable(rowStarts[id], rowStarts[id + 1], counts);
+        }
+    }
+
+    /**
+     * Trains a model from the text of the given corpus, where words are separated by whitespace and a word
+     * that ends with '.', '!' or '?' ends a sentence.
+     *
+     * @param corpus   the text to train from.
+     * @param maxWords the maximal number of words in a reply.
+     * @return the trained model.
+     * @throws IOException              if reading the corpus failed.
+     * @throws IllegalArgumentException if the corpus has no words.
+     */
+    public static MarkovModel train(Reader corpus, int maxWords) throws IOException {
+        List<String> words = new ArrayList<>();
+        words.add("");  // the boundary
+        HashMap<String, Integer> ids = new HashMap<>();
+        long[] transitions = new long[1 << 4];
+        int transitionsCount = 0;
+        int previous = BOUNDARY;
+        BufferedReader reader = new BufferedReader(corpus);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            for (String word : line.trim().split(WORDS_DELIMITER)) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                int id = ids.computeIfAbsent(word, w -> {
+                    words.add(w);
+                    return words.size() - 1;
+                });
+                boolean endsSentence = SENTENCE_ENDS.indexOf(word.charAt(word.length() - 1)) >= 0;
+                if (transitionsCount + 2 > transitions.length) {
+                    transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                }
+                transitions[transitionsCount++] = transition(previous, id);
+                previous = id;
+                if (endsSentence) {
+                    transitions[transitionsCount++] = transition(previous, BOUNDARY);
+                    previous = BOUNDARY;
+                }
+            }
+        }
+        if (words.size() == 1) {
+            throw new IllegalArgumentException(EMPTY_CORPUS_MSG);
+        }
+        if (previous != BOUNDARY) {  // the corpus ends in the middle of a sentence
+            if (transitionsCount == transitions.length) {
+                transitions = Arrays.copyOf(transitions, transitions.length + 1);
+            }
+            transitions[transitionsCount++] = transition(previous, BOUNDARY);
+        }
+        return new MarkovModel(words.toArray(new String[0]), Arrays.copyOf(transitions, transitionsCount),
+                maxWords);
+    }
+
+    /**
+     * Trains a model from the text of the given UTF-8 file.
+     *
+     * @param corpus   the path of the corpus file.
+     * @param maxWords the maximal number of words in a reply.
+     * @return the trained model.
+     * @throws IOException              if reading the corpus failed.
+     * @throws IllegalArgumentException if the corpus has no words.
+     */
+    public static MarkovModel train(Path corpus, int maxWords) throws IOException {
+        try (Reader reader = Files.newBufferedReader(corpus, StandardCharsets.UTF_8)) {
+            return train(reader, maxWords);
+        }
+    }
+
+    /**
+     * Getter for the size of the model's vocabulary.
+     *
+     * @return the number of distinct words.
+     */
+    public int getVocabularySize() {
+        return words.length - 1;
+    }
+
+    /**
+     * Getter for the number of the model's transitions.
+     *
+     * @return the number of distinct pairs of consecutive words (including the starts and ends of sentences).
+     */
+    public int getTransitionsCount() {
+        return successors.length;
+    }
+
+    /**
+     * Generates a reply to the given statement: a random walk on the chain, from the statement's last word.
+     *
+     * @param statement the statement to reply to.
+     * @param rand      the random generator of the replying bot.
+     * @param builder   the (reusable) builder to generate into.
+     * @return the given builder, holding the generated reply.
+     */
+    @Override
+    public StringBuilder generate(CharSequence statement, Random rand, StringBuilder builder) {
+        builder.setLength(0);
+        int end = statement.length();
+        while (end > 0 && Character.isWhitespace(statement.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && !Character.isWhitespace(statement.charAt(start - 1))) {
+            start--;
+        }
+        int state = Math.max(BOUNDARY, idOf(statement, start, end));
+        for (int written = 0; written < maxWords; ) {
+            int next = sample(state, rand);
+            if (next == BOUNDARY) {
+                if (written > 0) {
+                    break;
+                }
+                state = BOUNDARY;  // the statement's last word ends a sentence, so start a new one
+                continue;
+            }
+            if (written++ > 0) {
+                builder.append(SPACE);
+            }
+            builder.append(words[next]);
+            state = next;
+        }
+        return builder;
+    }
+
+    /*
+     * Samples a successor of the given word, by its row's alias table.
+     */
+    private int sample(int word, Random rand) {
+        int start = rowStarts[word];
+        int edge = start + rand.nextInt(rowStarts[word + 1] - start);
+        return (rand.nextDouble() < probabilities[edge]) ? successors[edge] : aliases[edge];
+    }
+
+    /*
+     * Returns the id of the word in the given range of the characters, or -1 if it isn't in the vocabulary.
+     */
+    private int idOf(CharSequence chars, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+        int slot = hash(chars, start, end) & (slots.length - 1);
+        while (slots[slot] != EMPTY_SLOT) {
+            String word = words[slots[slot]];
+            if (word.length() == end - start && regionEquals(word, chars, start)) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return -1;
+    }
+
+    /*
+     * Builds the alias table of the row [start, end), whose successors have the given counts.
+     */
+    private void buildAliasTable(int start, int end, int[] counts) {
+        int size = end - start;
+        long total = 0;
+        for (int edge = start; edge < end; edge++) {
+            total += counts[edge];
+        }
+        int[] small = new int[size], large = new int[size];
+        int smallCount = 0, largeCount = 0;
+        for (int edge = start; edge < end; edge++) {
+            probabilities[edge] = (double) counts[edge] * size / total;  // scaled, so the mean is 1
+            aliases[edge] = successors[edge];
+            if (probabilities[edge] < 1) {
+                small[smallCount++] = edge;
+            } else {
+                large[largeCount++] = edge;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount], more = large[--largeCount];
+            aliases[less] = successors[more];  // the rest of less's column is filled by more
+            probabilities[more] += probabilities[less] - 1;
+            if (probabilities[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) {
+            probabilities[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {  // only by rounding errors
+            probabilities[small[--smallCount]] = 1;
+        }
+    }
+
+    /*
+     * Encodes a transition as a single long, so the transitions can be sorted by their source.
+     */
+    private static long transition(int from, int to) {
+        return ((long) from << Integer.SIZE) | to;
+    }
+
+    /*
+     * Hashes the given range of characters, as String.hashCode does, and spreads the high bits.
+     */
+    private static int hash(CharSequence chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = HASH_MULTIPLIER * hash + chars.charAt(i);
+        }
+        return hash ^ (hash >>> (Integer.SIZE / 2));
+    }
+
+    /*
+     * Checks whether the given word equals the characters from the given start.
+     */
+    private static boolean regionEquals(String word, CharSequence chars, int start) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != chars.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
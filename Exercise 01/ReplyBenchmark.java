@@ -0,0 +1,166 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * A microbenchmark of the reply generation of ChatterBot, across statement lengths from 10 characters to
+ * 1M characters. Every benchmark is warmed up first (so the JIT compiles it), then measured in a few
+ * iterations of a fixed time, and reported as the mean (and standard deviation) time per operation and the
+ * bytes allocated per operation (by the thread's allocation counter, as JMH's GC profiler does).
+ * The baseline is the original implementation, which rendered a reply with <code>String.replaceAll</code>.
+ * Usage: <code>java ReplyBenchmark [iterationMillis] [nameFilter]</code>
+ *
+ * @author Roei Dahuki
+ */
+class ReplyBenchmark {
+    /* Constants: */
+    private static final int[] STATEMENT_LENGTHS = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final int WARMUP_ITERATIONS = 5, MEASURED_ITERATIONS = 10;
+    private static final long DEFAULT_ITERATION_MILLIS = 100;
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private static final long BATCH_NANOS = NANOS_PER_MILLI;  // the time between checks of the clock
+    private static final int CACHE_CAPACITY = 1 << 10;
+    private static final String FILLER = "Hello World! ";
+    private static final String HEADER_FORMAT = "%-28s %9s %14s %10s %14s%n";
+    private static final String RESULT_FORMAT = "%-28s %9d %14.1f %10.1f %14.1f%n";
+    private static final String[] HEADER = {"benchmark", "length", "ns/op", "stddev", "bytes/op"};
+
+    /* Fields: */
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private long sink = 0;  // consumes the results, so the JIT can't drop the benchmarked code
+
+    /**
+     * Constructs a benchmark runner.
+     *
+     * @param iterationMillis the time of every iteration, in milliseconds.
+     */
+    public ReplyBenchmark(long iterationMillis) {
+        this.iterationNanos = iterationMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Creates the benchmarks of the given statement length: every public way of ChatterBot to reply, and the
+     * original <code>replaceAll</code> rendering as the baseline.
+     *
+     * @param length the length of the statements.
+     * @return the benchmarks, by name.
+     */
+    static List<Benchmark> benchmarksOf(int length) {
+        String phrase = FILLER.repeat(length / FILLER.length() + 1).substring(0, length);
+        String request = ChatterBot.REQUEST_PREFIX + phrase;
+        Rope requestRope = Rope.of(request);
+        String[] patterns = {ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE,
+                "say " + ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE + "? okay: " +
+                        ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE};
+        ChatterBot bot = new ChatterBot("bot", patterns, new String[]{"what " +
+                ChatterBot.PLACEHOLDER_FOR_ILLEGAL_REQUEST});
+        ChatterBot cachedBot = new ChatterBot("cached bot", patterns, new String[]{"what " +
+                ChatterBot.PLACEHOLDER_FOR_ILLEGAL_REQUEST});
+        cachedBot.setReplyCache(new ReplyCache(CACHE_CAPACITY, Integer.MAX_VALUE));
+        Random rand = new Random();
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Benchmark("baseline replaceAll", length, () ->
+                patterns[rand.nextInt(patterns.length)]
+                        .replaceAll(ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE, phrase).length()));
+        benchmarks.add(new Benchmark("replacePlaceholder...", length, () ->
+                bot.replacePlaceholderInARandomPattern(patterns, ChatterBot.PLACEHOLDER_FOR_REQUESTED_PHRASE,
+                        phrase).length()));
+        benchmarks.add(new Benchmark("replyToLegalRequest", length, () ->
+                bot.replyToLegalRequest(request).length()));
+        benchmarks.add(new Benchmark("replyTo(String)", length, () -> bot.replyTo(request).length()));
+        benchmarks.add(new Benchmark("replyTo(String), illegal", length, () -> bot.replyTo(phrase).length()));
+        benchmarks.add(new Benchmark("replyTo(String), cached", length, () ->
+                cachedBot.replyTo(request).length()));
+        benchmarks.add(new Benchmark("replyTo(Rope)", length, () -> bot.replyTo(requestRope).longLength()));
+        return benchmarks;
+    }
+
+    /**
+     * Warms a benchmark up, measures it, and prints its results.
+     *
+     * @param benchmark the benchmark to run.
+     */
+    public void run(Benchmark benchmark) {
+        int batch = 1;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            double nanosPerOperation = iterate(benchmark.operation, batch)[0];
+            batch = (int) Math.max(1, Math.min(Integer.MAX_VALUE, BATCH_NANOS / nanosPerOperation));
+        }
+        double[] nanos = new double[MEASURED_ITERATIONS];
+        double[] bytes = new double[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            double[] result = iterate(benchmark.operation, batch);
+            nanos[i] = result[0];
+            bytes[i] = result[1];
+        }
+        double mean = Arrays.stream(nanos).average().orElse(0);
+        double variance = Arrays.stream(nanos).map(x -> (x - mean) * (x - mean)).sum() / (nanos.length - 1);
+        System.out.printf(RESULT_FORMAT, benchmark.name, benchmark.length, mean, Math.sqrt(variance),
+                Arrays.stream(bytes).average().orElse(0));
+    }
+
+    /*
+     * Runs the operation in batches for (at least) the time of an iteration, and returns the nanoseconds and
+     * the allocated bytes per operation.
+     */
+    private double[] iterate(LongSupplier operation, int batch) {
+        long operations = 0;
+        long startBytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < batch; i++) {
+                sink += operation.getAsLong();
+            }
+            operations += batch;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - startBytes;
+        return new double[]{(double) elapsed / operations, (double) allocated / operations};
+    }
+
+    /**
+     * main function.
+     * Runs all the benchmarks (or the ones whose names contain the given filter), for every statement length.
+     *
+     * @param args optionally the time of an iteration in milliseconds, and a filter of the benchmarks' names.
+     */
+    public static void main(String[] args) {
+        long iterationMillis = (args.length > 0) ? Long.parseLong(args[0]) : DEFAULT_ITERATION_MILLIS;
+        String filter = (args.length > 1) ? args[1] : "";
+        ReplyBenchmark runner = new ReplyBenchmark(iterationMillis);
+        System.out.printf(HEADER_FORMAT, (Object[]) HEADER);
+        for (int length : STATEMENT_LENGTHS) {
+            for (Benchmark benchmark : benchmarksOf(length)) {
+                if (benchmark.name.contains(filter)) {
+                    runner.run(benchmark);
+                }
+            }
+        }
+        if (runner.sink == 0) {
+            System.out.println();  // never happens, but the JIT can't know that
+        }
+    }
+
+    /*
+     * A single benchmark: a named operation on statements of a given length, which returns a value that
+     * depends on its result.
+     */
+    static class Benchmark {
+        private final String name;
+        private final int length;
+        private final LongSupplier operation;
+
+        Benchmark(String name, int length, LongSupplier operation) {
+            this.name = name;
+            this.length = length;
+            this.operation = operation;
+        }
+    }
+}
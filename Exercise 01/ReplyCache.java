@@ -0,0 +1,204 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of the replies of ChatterBots, keyed by the bot's rules and the statement it replies
+ * to (so bots that share their rules share their entries, and rules that were replaced are never used).
+ * An entry doesn't hold a single reply, but the intent's templates and the phrase, and a lazily filled
+ * rendering of every template - so the bot still chooses randomly between its patterns on every reply, and
+ * only the rendering of the chosen pattern is reused.
+ * Statements longer than a given limit are not cached, as hashing and copying them would cost more than
+ * replying to them.
+ * It is not thread-safe: it should be shared only by bots that reply on a single thread.
+ *
+ * @author Roei Dahuki
+ */
+class ReplyCache {
+    /* Constants: */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /* Fields: */
+    private final int maxStatementLength;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long hits = 0, misses = 0, evictions = 0;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity           the maximal number of statements to keep replies to.
+     * @param maxStatementLength the maximal length of a cached statement.
+     */
+    public ReplyCache(int capacity, int maxStatementLength) {
+        this.maxStatementLength = maxStatementLength;
+        this.entries = new LinkedHashMap<>((int) (capacity / LOAD_FACTOR) + 1, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Checks whether replies to a statement of the given length may be cached.
+     *
+     * @param statementLength the length of the statement.
+     * @return true if the statement is short enough to be cached.
+     */
+    public boolean accepts(long statementLength) {
+        return statementLength <= maxStatementLength;
+    }
+
+    /**
+     * Looks up the replies of a bot to a statement, counting a hit if they are found. A miss is counted
+     * only when the replies are put in the cache, so a lookup of a statement whose replies are not cached
+     * (such as generated replies) counts as neither.
+     *
+     * @param rules     the rules of the replying bot.
+     * @param statement the statement.
+     * @return the cached replies, or null if there are none.
+     */
+    Entry get(ReplyRules rules, String statement) {
+        Entry entry = entries.get(new Key(rules, statement));
+        if (entry != null) {
+            hits++;
+        }
+        return entry;
+    }
+
+    /**
+     * Adds the (not yet rendered) replies of a bot to a statement, after a lookup missed them (counting the
+     * miss).
+     *
+     * @param rules     the rules of the replying bot.
+     * @param statement the statement.
+     * @param templates the templates of the statement's intent.
+     * @param phrase    the phrase to render the templates with.
+     * @return the new entry.
+     */
+    Entry put(ReplyRules rules, String statement, ReplyTemplate[] templates, String phrase) {
+        Entry entry = new Entry(templates, phrase);
+        misses++;
+        entries.put(new Key(rules, statement), entry);
+        return entry;
+    }
+
+    /**
+     * Getter for the number of hits.
+     *
+     * @return the number of lookups that found cached replies.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter for the number of misses.
+     *
+     * @return the number of lookups that found no cached replies, and cached them.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Getter for the number of evictions.
+     *
+     * @return the number of entries that were dropped to keep the cache within its capacity.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Getter for the number of cached statements.
+     *
+     * @return the current size of the cache.
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Computes the hit rate of the cache.
+     *
+     * @return the fraction of lookups that were hits, or 0 if there were none.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return (lookups == 0) ? 0 : (double) hits / lookups;
+    }
+
+    /*
+     * The key of an entry: the rules (by identity) and the statement (whose hash is cached by the string).
+     */
+    private static final class Key {
+        private final ReplyRules rules;
+        private final String statement;
+        private final int hash;
+
+        Key(ReplyRules rules, String statement) {
+            this.rules = rules;
+            this.statement = statement;
+            this.hash = 31 * System.identityHashCode(rules) + statement.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return rules == key.rules && hash == key.hash && statement.equals(key.statement);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The replies of a bot to a single statement: the templates it may choose from, and the rendering of
+     * every template that was chosen so far.
+     */
+    static final class Entry {
+        private final ReplyTemplate[] templates;
+        private final String phrase;
+        private final String[] renderings;
+
+        private Entry(ReplyTemplate[] templates, String phrase) {
+            this.templates = templates;
+            this.phrase = phrase;
+            this.renderings = new String[templates.length];
+        }
+
+        /**
+         * Getter for the number of templates to choose from.
+         *
+         * @return the number of templates.
+         */
+        int getTemplatesCount() {
+            return templates.length;
+        }
+
+        /**
+         * Returns the rendering of the template of the given index, rendering it if it wasn't yet.
+         *
+         * @param index   the index of the chosen template.
+         * @param builder a builder to render into.
+         * @return the rendered reply.
+         */
+        String render(int index, StringBuilder builder) {
+            String rendering = renderings[index];
+            if (rendering == null) {
+                rendering = templates[index].renderTo(builder, phrase).toString();
+                renderings[index] = rendering;
+            }
+            return rendering;
+        }
+    }
+}
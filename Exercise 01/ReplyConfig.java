@@ -0,0 +1,285 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The bots of a chat and their replies, configured by a text file that may be changed while the bots reply.
+ * Every bot starts with a <code>bot: NAME</code> line, and its replies follow, one per line:
+ * <code>legal: REPLY</code>, <code>illegal: REPLY</code>, <code>prefix: TRIGGER|REPLY</code> or
+ * <code>keyword: TRIGGER|REPLY</code>. A value is taken up to the end of the line, without its surrounding
+ * spaces - unless it's in double quotes, which are removed, and keep the spaces inside them visible (so an
+ * editor that strips trailing spaces doesn't change the replies): <code>illegal: "what "</code>. Empty lines
+ * and lines that start with '#' are ignored.
+ * <p>
+ * The compiled <code>ReplyRules</code> of all the bots are kept in a single immutable map. On reload, the
+ * whole file is parsed and compiled first, and only then the map is swapped (copy-on-write), by a single
+ * write - so the bots keep replying without a lock, each reply by either the old rules or the new ones, and
+ * once any bot replied by the new rules, every later reply (of any bot) is by them too. A file that fails to
+ * parse leaves the current rules as they are.
+ *
+ * @author Roei Dahuki
+ */
+class ReplyConfig implements AutoCloseable {
+    /* Constants: */
+    private static final String KEY_SEPARATOR = ": ";
+    private static final char TRIGGER_SEPARATOR = '|';
+    private static final String QUOTE = "\"";
+    private static final String COMMENT_PREFIX = "#";
+    private static final String BOT_KEY = "bot", LEGAL_KEY = "legal", ILLEGAL_KEY = "illegal",
+            PREFIX_KEY = "prefix", KEYWORD_KEY = "keyword";
+    private static final String WATCHER_THREAD_NAME = "reply-config-watcher";
+    private static final String LINE_ERROR_FORMAT = "%s:%d: %s";
+    private static final String BAD_LINE_MSG = "expected \"KEY: VALUE\"";
+    private static final String NO_BOT_MSG = "replies before the first bot";
+    private static final String UNKNOWN_KEY_MSG = "unknown key ";
+    private static final String NO_TRIGGER_MSG = "expected \"TRIGGER|REPLY\"";
+    private static final String NO_REPLIES_FORMAT = "%s: the bot %s needs legal and illegal replies";
+    private static final String NO_BOTS_FORMAT = "%s: no bots";
+    private static final String UNKNOWN_BOT_MSG = "Unknown bot: ";
+    private static final String RELOAD_FAILED_MSG = "Reply configuration was not reloaded: ";
+
+    /* Fields: */
+    private final Path file;
+    private volatile Map<String, ReplyRules> rules = Map.of();  // by name, swapped as a whole
+    private volatile List<String> names;
+    private volatile long reloads = 0;
+    private WatchService watchService = null;
+
+    /**
+     * Loads the configuration of the given file.
+     *
+     * @param file the path of the configuration file.
+     * @throws IOException              if the file could not be read.
+     * @throws IllegalArgumentException if the file is not a valid configuration.
+     */
+    public ReplyConfig(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        reload();
+        reloads = 0;
+    }
+
+    /**
+     * Reads, parses and compiles the file again, and swaps the rules of every bot in it.
+     * Bots that are no longer in the file keep their last rules.
+     *
+     * @throws IOException              if the file could not be read.
+     * @throws IllegalArgumentException if the file is not a valid configuration (the rules are not changed).
+     */
+    public synchronized void reload() throws IOException {
+        Map<String, ReplyRules> compiled = parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+        Map<String, ReplyRules> merged = new HashMap<>(rules);  // the removed bots keep their last rules
+        merged.putAll(compiled);
+        rules = Map.copyOf(merged);  // the new rules of all the bots at once
+        names = List.copyOf(compiled.keySet());
+        reloads++;
+    }
+
+    /**
+     * Getter for the names of the bots.
+     *
+     * @return the names of the bots in the file, in its order.
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Getter for the number of reloads.
+     *
+     * @return the number of times the file was reloaded after it was loaded.
+     */
+    public long getReloadsCount() {
+        return reloads;
+    }
+
+    /**
+     * Creates a new bot of the given name, whose replies follow the file (even when it's reloaded).
+     *
+     * @param name the name of the bot.
+     * @return the new bot.
+     * @throws IllegalArgumentException if there is no such bot.
+     */
+    public ChatterBot newBot(String name) {
+        if (!rules.containsKey(name)) {
+            throw new IllegalArgumentException(UNKNOWN_BOT_MSG + name);
+        }
+        return new ChatterBot(name, () -> rules.get(name));
+    }
+
+    /**
+     * Starts watching the file, in a daemon thread, and reloads it whenever it's modified.
+     *
+     * @throws IOException if the directory of the file could not be watched.
+     */
+    public synchronized void watch() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> watchLoop(service), WATCHER_THREAD_NAME);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the file.
+     *
+     * @throws IOException if the watch could not be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    /*
+     * Waits for changes of the file, and reloads it, until the watch is closed.
+     */
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | IllegalArgumentException e) {
+                        System.err.println(RELOAD_FAILED_MSG + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watch is over
+        }
+    }
+
+    /*
+     * Parses the lines of a configuration file, and compiles the rules of every bot, by name.
+     */
+    private Map<String, ReplyRules> parse(List<String> lines) {
+        Map<String, ReplyRules> compiled = new LinkedHashMap<>();
+        String name = null;
+        List<String> legal = new ArrayList<>(), illegal = new ArrayList<>();
+        List<Intent> intents = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank() || line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            int separator = line.indexOf(KEY_SEPARATOR);
+            if (separator < 0) {
+                throw lineError(i, BAD_LINE_MSG);
+            }
+            String key = line.substring(0, separator).trim();
+            String value = unquote(line.substring(separator + KEY_SEPARATOR.length()).strip());
+            if (key.equals(BOT_KEY)) {
+                if (name != null) {
+                    compiled.put(name, compile(name, legal, illegal, intents));
+                }
+                name = value;
+                legal.clear();
+                illegal.clear();
+                intents.clear();
+                continue;
+            }
+            if (name == null) {
+                throw lineError(i, NO_BOT_MSG);
+            }
+            switch (key) {
+                case LEGAL_KEY:
+                    legal.add(value);
+                    break;
+                case ILLEGAL_KEY:
+                    illegal.add(value);
+                    break;
+                case PREFIX_KEY:
+                case KEYWORD_KEY:
+                    int triggerEnd = value.indexOf(TRIGGER_SEPARATOR);
+                    if (triggerEnd <= 0) {
+                        throw lineError(i, NO_TRIGGER_MSG);
+                    }
+                    Intent.Kind kind = key.equals(PREFIX_KEY) ? Intent.Kind.PREFIX : Intent.Kind.KEYWORD;
+                    addIntentReply(intents, kind, value.substring(0, triggerEnd),
+                            value.substring(triggerEnd + 1));
+                    break;
+                default:
+                    throw lineError(i, UNKNOWN_KEY_MSG + key);
+            }
+        }
+        if (name == null) {
+            throw new IllegalArgumentException(String.format(NO_BOTS_FORMAT, file));
+        }
+        compiled.put(name, compile(name, legal, illegal, intents));
+        return compiled;
+    }
+
+    /*
+     * Removes the double quotes around a value, if it's quoted.
+     */
+    private static String unquote(String value) {
+        if (value.length() >= 2 * QUOTE.length() && value.startsWith(QUOTE) && value.endsWith(QUOTE)) {
+            return value.substring(QUOTE.length(), value.length() - QUOTE.length());
+        }
+        return value;
+    }
+
+    /*
+     * Adds a reply to the intent of the given kind and trigger, creating the intent if it's new.
+     * Intents are immutable, so an existing intent is replaced by one with the added reply.
+     */
+    private static void addIntentReply(List<Intent> intents, Intent.Kind kind, String trigger, String reply) {
+        for (int i = 0; i < intents.size(); i++) {
+            Intent intent = intents.get(i);
+            if (intent.getKind() == kind && intent.getTrigger().equals(trigger)) {
+                ReplyTemplate[] templates = intent.getTemplates();
+                String[] replies = new String[templates.length + 1];
+                for (int j = 0; j < templates.length; j++) {
+                    replies[j] = templates[j].getPattern();
+                }
+                replies[templates.length] = reply;
+                intents.set(i, new Intent(kind, trigger, replies));
+                return;
+            }
+        }
+        intents.add(new Intent(kind, trigger, new String[]{reply}));
+    }
+
+    /*
+     * Compiles the rules of a single bot.
+     */
+    private ReplyRules compile(String name, List<String> legal, List<String> illegal, List<Intent> intents) {
+        if (legal.isEmpty() || illegal.isEmpty()) {
+            throw new IllegalArgumentException(String.format(NO_REPLIES_FORMAT, file, name));
+        }
+        return new ReplyRules(legal.toArray(new String[0]), illegal.toArray(new String[0]),
+                intents.toArray(new Intent[0]));
+    }
+
+    /*
+     * Creates an exception for an invalid line (by its 0-based index).
+     */
+    private IllegalArgumentException lineError(int index, String message) {
+        return new IllegalArgumentException(String.format(LINE_ERROR_FORMAT, file, index + 1, message));
+    }
+}
@@ -0,0 +1,19 @@
+import java.util.Random;
+
+/**
+ * A source of replies for a ChatterBot, other than its fixed reply patterns.
+ * A bot that has a generator replies with it to the statements that match none of its intents.
+ *
+ * @author Roei Dahuki
+ */
+interface ReplyGenerator {
+    /**
+     * Generates a reply to the given statement into the given builder, replacing its former content.
+     *
+     * @param statement the statement to reply to.
+     * @param rand      the random generator of the replying bot.
+     * @param builder   the (reusable) builder to generate into.
+     * @return the given builder, holding the generated reply.
+     */
+    StringBuilder generate(CharSequence statement, Random rand, StringBuilder builder);
+}
@@ -0,0 +1,95 @@
+/**
+ * The reply-time metrics of a single ChatterBot: the number of replies, their mean and maximal time, and a
+ * histogram of power-of-2 buckets for percentiles.
+ * It is updated only by the thread that currently runs the bot, so recording a reply is a few plain writes.
+ *
+ * @author Roei Dahuki
+ */
+class ReplyMetrics {
+    /* Constants: */
+    private static final int NUMBER_OF_BUCKETS = Long.SIZE;  // bucket i holds times in [2^i, 2^(i+1))
+
+    /* Fields: */
+    private final long[] histogram = new long[NUMBER_OF_BUCKETS];
+    private long count = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+
+    /**
+     * Records a single reply.
+     *
+     * @param nanos the time the reply took, in nanoseconds.
+     */
+    public void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        histogram[bucketOf(nanos)]++;
+    }
+
+    /**
+     * Adds all the replies recorded by the given metrics into this one.
+     *
+     * @param other the metrics to add.
+     */
+    public void merge(ReplyMetrics other) {
+        count += other.count;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    /**
+     * Getter for the number of recorded replies.
+     *
+     * @return the number of replies.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Getter for the mean reply time.
+     *
+     * @return the mean time of a reply in nanoseconds, or 0 if there were no replies.
+     */
+    public double getMeanNanos() {
+        return (count == 0) ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Getter for the maximal reply time.
+     *
+     * @return the maximal time of a reply in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Estimates the given percentile of the reply time, by the upper bound of its histogram bucket.
+     *
+     * @param percentile the wanted percentile, between 0 and 100.
+     * @return an upper bound of the percentile in nanoseconds (at most twice its real value).
+     */
+    public long getPercentileNanos(double percentile) {
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(maxNanos, (i == NUMBER_OF_BUCKETS - 1) ? Long.MAX_VALUE : (2L << i) - 1);
+            }
+        }
+        return 0;
+    }
+
+    /*
+     * Returns the index of the histogram bucket of the given time.
+     */
+    private static int bucketOf(long nanos) {
+        return (nanos <= 0) ? 0 : (NUMBER_OF_BUCKETS - 1 - Long.numberOfLeadingZeros(nanos));
+    }
+}
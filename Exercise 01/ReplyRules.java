@@ -0,0 +1,60 @@
+/**
+ * The compiled replies of a ChatterBot: the templates of its replies to legal and illegal requests, and the
+ * matcher of its intents (the REQUEST_PREFIX request first).
+ * Rules are immutable, so they may be shared by any number of bots on any threads, and replaced as a whole
+ * (copy-on-write) - a bot reads its rules once per reply, and never sees half of a change.
+ *
+ * @author Roei Dahuki
+ */
+class ReplyRules {
+    /* Fields: */
+    private final ReplyTemplate[] legalRequestsTemplates;
+    private final ReplyTemplate[] illegalRequestTemplates;
+    private final IntentMatcher intentMatcher;
+
+    /**
+     * Compiles the rules of the given replies.
+     *
+     * @param repliesToLegalRequest   the possible replies to legal requests.
+     * @param repliesToIllegalRequest the possible replies to illegal requests.
+     * @param intents                 more intents, besides the REQUEST_PREFIX requests.
+     */
+    public ReplyRules(String[] repliesToLegalRequest, String[] repliesToIllegalRequest, Intent... intents) {
+        Intent requestIntent = new Intent(Intent.Kind.PREFIX, ChatterBot.REQUEST_PREFIX,
+                repliesToLegalRequest.clone());
+        this.legalRequestsTemplates = requestIntent.getTemplates();
+        this.illegalRequestTemplates = ReplyTemplate.compileAll(repliesToIllegalRequest.clone(),
+                ChatterBot.PLACEHOLDER_FOR_ILLEGAL_REQUEST);
+        Intent[] allIntents = new Intent[intents.length + 1];
+        allIntents[0] = requestIntent;
+        System.arraycopy(intents, 0, allIntents, 1, intents.length);
+        this.intentMatcher = new IntentMatcher(allIntents);
+    }
+
+    /**
+     * Getter for the templates of the replies to legal requests.
+     *
+     * @return the compiled replies.
+     */
+    ReplyTemplate[] getLegalRequestsTemplates() {
+        return legalRequestsTemplates;
+    }
+
+    /**
+     * Getter for the templates of the replies to illegal requests.
+     *
+     * @return the compiled replies.
+     */
+    ReplyTemplate[] getIllegalRequestTemplates() {
+        return illegalRequestTemplates;
+    }
+
+    /**
+     * Getter for the matcher of the intents.
+     *
+     * @return the intent matcher.
+     */
+    IntentMatcher getIntentMatcher() {
+        return intentMatcher;
+    }
+}
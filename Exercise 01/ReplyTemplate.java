@@ -0,0 +1,120 @@
+/**
+ * A reply pattern of a ChatterBot, compiled once into its literal segments, so that rendering it with a given
+ * phrase is a single linear copy: no regular expressions, and no special meaning to any character of the
+ * phrase (such as <code>$</code> or <code>\</code>).
+ * A pattern with n appearances of the placeholder is split into n+1 literal segments, and is rendered as
+ * <code>literal[0] + phrase + literal[1] + ... + phrase + literal[n]</code>.
+ * It can also be rendered into a Rope, which references the phrase instead of copying it.
+ *
+ * @author Roei Dahuki
+ */
+class ReplyTemplate {
+    /* Fields: */
+    private final String pattern;
+    private final String[] literals;
+    private final Rope[] literalRopes;  // the same literals, for rendering into a rope
+    private final int literalsLength;  // the sum of the lengths of all literals
+
+    /**
+     * Compiles the given pattern by the given placeholder.
+     *
+     * @param pattern     the reply pattern.
+     * @param placeholder the string that shall be replaced in every rendering of the pattern.
+     */
+    public ReplyTemplate(String pattern, String placeholder) {
+        this.pattern = pattern;
+        int placeholders = 0;
+        for (int i = pattern.indexOf(placeholder); i >= 0;
+             i = pattern.indexOf(placeholder, i + placeholder.length())) {
+            placeholders++;
+        }
+        literals = new String[placeholders + 1];
+        int start = 0;
+        for (int i = 0; i < placeholders; i++) {
+            int end = pattern.indexOf(placeholder, start);
+            literals[i] = pattern.substring(start, end);
+            start = end + placeholder.length();
+        }
+        literals[placeholders] = pattern.substring(start);
+        literalsLength = pattern.length() - placeholders * placeholder.length();
+        literalRopes = new Rope[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            literalRopes[i] = Rope.of(literals[i]);
+        }
+    }
+
+    /**
+     * Compiles every pattern of the given array by the given placeholder.
+     *
+     * @param patterns    the reply patterns.
+     * @param placeholder the string that shall be replaced in every rendering of the patterns.
+     * @return an array of the compiled templates, in the same order.
+     */
+    public static ReplyTemplate[] compileAll(String[] patterns, String placeholder) {
+        ReplyTemplate[] templates = new ReplyTemplate[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            templates[i] = new ReplyTemplate(patterns[i], placeholder);
+        }
+        return templates;
+    }
+
+    /**
+     * Getter for the original pattern of this template.
+     *
+     * @return the pattern this template was compiled from.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Getter for the number of placeholder appearances in this template.
+     *
+     * @return the number of times the phrase appears in every rendering.
+     */
+    public int getPlaceholdersCount() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Calculates the length of the rendering of this template with a phrase of the given length.
+     *
+     * @param phraseLength the length of the phrase.
+     * @return the length of the rendered reply.
+     */
+    public long renderedLength(long phraseLength) {
+        return literalsLength + getPlaceholdersCount() * phraseLength;
+    }
+
+    /**
+     * Renders this template with the given phrase into the given builder, replacing its former content.
+     *
+     * @param builder the (reusable) builder to render into.
+     * @param phrase  the phrase to put instead of every placeholder.
+     * @return the given builder, holding the rendered reply.
+     */
+    public StringBuilder renderTo(StringBuilder builder, String phrase) {
+        builder.setLength(0);
+        builder.ensureCapacity((int) Math.min(Integer.MAX_VALUE, renderedLength(phrase.length())));
+        builder.append(literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            builder.append(phrase).append(literals[i]);
+        }
+        return builder;
+    }
+
+    /**
+     * Renders this template with the given phrase into a rope, which shares the phrase (and the literals)
+     * instead of copying them. The cost is linear in the number of placeholders, not in the phrase's length.
+     *
+     * @param phrase the phrase to put instead of every placeholder.
+     * @return a rope of the rendered reply.
+     */
+    public Rope render(Rope phrase) {
+        Rope reply = literalRopes[0];
+        for (int i = 1; i < literalRopes.length; i++) {
+            reply = reply.concat(phrase).concat(literalRopes[i]);
+        }
+        return reply;
+    }
+}
@@ -0,0 +1,446 @@
+import java.io.IOException;
+
+/**
+ * An immutable (persistent) string, represented as a tree of shared segments instead of a flat array of
+ * characters. Concatenating ropes, or taking a suffix of a rope, only creates a small node that references
+ * the existing ropes, so a reply which repeats the given statement (even twice) doesn't copy it.
+ * The characters are copied only when the rope is streamed (<code>writeTo</code>), or flattened.
+ * <p>
+ * Since the length of a chat's statements may grow exponentially, <code>bound</code> keeps a rope within a
+ * given length cap and a constant depth, by flattening it (once the cap is reached, into its first
+ * <code>cap</code> characters).
+ * <p>
+ * Every rope has a 64-bit polynomial fingerprint, computed once per node from the fingerprints of the nodes
+ * it references - so fingerprinting a reply costs about the same as building it, not its length.
+ *
+ * @author Roei Dahuki
+ */
+abstract class Rope implements CharSequence {
+    /* Constants: */
+    /**
+     * The empty rope.
+     */
+    public static final Rope EMPTY = new Leaf("");
+
+    /**
+     * The depth from which <code>bound</code> flattens a rope, even if it is shorter than the cap.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private static final int HEAD_LENGTH = 16;  // the number of first characters cached in every node
+    private static final long FINGERPRINT_BASE = 0x9E3779B97F4A7C15L;  // odd, so it is invertible mod 2^64
+
+    /* Fields: */
+    private final long length;
+    private final int depth;
+    private String head;  // the first (up to) HEAD_LENGTH characters, for a fast startsWith
+    private long fingerprint;
+    private boolean hasFingerprint = false;
+
+    /*
+     * Constructor for the inner implementations.
+     *
+     * @param length the number of characters in the rope.
+     * @param depth  the depth of the tree of the rope.
+     */
+    private Rope(long length, int depth) {
+        this.length = length;
+        this.depth = depth;
+    }
+
+    /**
+     * Creates a rope of the characters of the given string.
+     *
+     * @param string the string.
+     * @return a rope holding the same characters.
+     */
+    public static Rope of(String string) {
+        return string.isEmpty() ? EMPTY : new Leaf(string);
+    }
+
+    /**
+     * Getter for the length of the rope.
+     * Unlike <code>length()</code>, it isn't limited to the range of int.
+     *
+     * @return the number of characters in the rope.
+     */
+    public long longLength() {
+        return length;
+    }
+
+    /**
+     * Getter for the depth of the rope, the number of nodes from its root to its deepest segment.
+     *
+     * @return the depth of the rope.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the length of the rope, or Integer.MAX_VALUE if it is longer than that.
+     *
+     * @return the length of the rope, as an int.
+     */
+    @Override
+    public int length() {
+        return (int) Math.min(length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the character in the given index.
+     *
+     * @param index the index of the character.
+     * @return the character in the given index.
+     */
+    @Override
+    public char charAt(int index) {
+        return charAt((long) index);
+    }
+
+    /**
+     * Returns the character in the given index, with a long index.
+     *
+     * @param index the index of the character.
+     * @return the character in the given index.
+     * @throws IndexOutOfBoundsException if the index is out of the rope's range.
+     */
+    public char charAt(long index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return charAtUnchecked(index);
+    }
+
+    /**
+     * Returns a rope of the characters in the given range, sharing the segments of this rope.
+     *
+     * @param start the index of the first character (inclusive).
+     * @param end   the index of the last character (exclusive).
+     * @return the sub-rope.
+     */
+    @Override
+    public Rope subSequence(int start, int end) {
+        return subRope(start, end);
+    }
+
+    /**
+     * Returns a rope of the characters in the given range, sharing the segments of this rope.
+     *
+     * @param start the index of the first character (inclusive).
+     * @param end   the index of the last character (exclusive).
+     * @return the sub-rope.
+     * @throws IndexOutOfBoundsException if the range is out of the rope's range.
+     */
+    public Rope subRope(long start, long end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + length);
+        }
+        if (start == end) {
+            return EMPTY;
+        }
+        if (start == 0 && end == length) {
+            return this;
+        }
+        return slice(start, end - start);
+    }
+
+    /**
+     * Returns a rope of the characters from the given index to the end, sharing the segments of this rope.
+     *
+     * @param start the index of the first character (inclusive).
+     * @return the suffix of this rope.
+     */
+    public Rope subRope(long start) {
+        return subRope(start, length);
+    }
+
+    /**
+     * Returns the concatenation of this rope and the given one, sharing the segments of both.
+     *
+     * @param other the rope to put after this one.
+     * @return the concatenated rope.
+     */
+    public Rope concat(Rope other) {
+        if (other.length == 0) {
+            return this;
+        }
+        if (length == 0) {
+            return other;
+        }
+        return new Concat(this, other);
+    }
+
+    /**
+     * Checks whether the rope starts with the given prefix, in O(1) for short prefixes.
+     *
+     * @param prefix the prefix to check.
+     * @return true if the rope starts with prefix, false otherwise.
+     */
+    public boolean startsWith(String prefix) {
+        if (prefix.length() > length) {
+            return false;
+        }
+        if (prefix.length() <= HEAD_LENGTH) {
+            return getHead().startsWith(prefix);
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (charAtUnchecked(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the rope within the given length cap and a bounded depth: a rope longer than the cap is flattened
+     * into its first <code>cap</code> characters, and a rope deeper than MAX_DEPTH is flattened as is.
+     * Otherwise, the rope is returned as is.
+     * The cost is therefore at most O(cap), no matter how long the rope is.
+     *
+     * @param cap the maximal number of characters to keep.
+     * @return a rope of at most cap characters, and of depth at most MAX_DEPTH.
+     */
+    public Rope bound(long cap) {
+        if (length > cap) {
+            return of(subRope(0, cap).toString());
+        }
+        if (depth > MAX_DEPTH) {
+            return of(toString());
+        }
+        return this;
+    }
+
+    /**
+     * Streams the characters of the rope into the given output, segment after segment, without flattening.
+     *
+     * @param out the output to append the characters to.
+     * @throws IOException if the output failed.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        writeRange(out, 0, length);
+    }
+
+    /**
+     * Flattens the rope into a string.
+     *
+     * @return a string of all the characters of the rope.
+     * @throws OutOfMemoryError if the rope is too long to be a string.
+     */
+    @Override
+    public String toString() {
+        if (length > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("A rope of " + length + " characters is too long for a string");
+        }
+        StringBuilder builder = new StringBuilder((int) length);
+        try {
+            writeTo(builder);
+        } catch (IOException e) {
+            throw new AssertionError(e);  // StringBuilder never throws IOException
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the fingerprint of the rope: the polynomial hash (modulo 2^64) of its characters, so equal
+     * ropes have equal fingerprints however they were built. It is calculated once for every node.
+     *
+     * @return the fingerprint of the rope.
+     */
+    public long fingerprint() {
+        if (!hasFingerprint) {
+            fingerprint = computeFingerprint();
+            hasFingerprint = true;
+        }
+        return fingerprint;
+    }
+
+    /*
+     * Calculates the fingerprint of the rope, by streaming its characters.
+     */
+    long computeFingerprint() {
+        return fingerprintOfRange(0, length);
+    }
+
+    /*
+     * Calculates the fingerprint of the given (valid) range, by streaming its characters.
+     */
+    long fingerprintOfRange(long from, long to) {
+        Hasher hasher = new Hasher();
+        try {
+            writeRange(hasher, from, to);
+        } catch (IOException e) {
+            throw new AssertionError(e);  // Hasher never throws IOException
+        }
+        return hasher.hash;
+    }
+
+    /*
+     * Returns FINGERPRINT_BASE to the power of the given exponent (modulo 2^64), by repeated squaring.
+     */
+    private static long power(long exponent) {
+        long result = 1, base = FINGERPRINT_BASE;
+        for (long e = exponent; e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+        }
+        return result;
+    }
+
+    /*
+     * Returns the first (up to) HEAD_LENGTH characters of the rope, calculating them once.
+     */
+    private String getHead() {
+        if (head == null) {
+            StringBuilder builder = new StringBuilder(HEAD_LENGTH);
+            try {
+                writeRange(builder, 0, Math.min(length, HEAD_LENGTH));
+            } catch (IOException e) {
+                throw new AssertionError(e);  // StringBuilder never throws IOException
+            }
+            head = builder.toString();
+        }
+        return head;
+    }
+
+    /*
+     * Returns the character in the given (valid) index.
+     */
+    abstract char charAtUnchecked(long index);
+
+    /*
+     * Appends the characters in the given (valid) range to the given output.
+     */
+    abstract void writeRange(Appendable out, long from, long to) throws IOException;
+
+    /*
+     * Returns a rope of the given (valid, non-empty, proper) range.
+     */
+    Rope slice(long offset, long sliceLength) {
+        return new Slice(this, offset, sliceLength);
+    }
+
+    /*
+     * A flat segment of characters.
+     */
+    private static final class Leaf extends Rope {
+        private final String string;
+
+        Leaf(String string) {
+            super(string.length(), 0);
+            this.string = string;
+        }
+
+        @Override
+        char charAtUnchecked(long index) {
+            return string.charAt((int) index);
+        }
+
+        @Override
+        void writeRange(Appendable out, long from, long to) throws IOException {
+            out.append(string, (int) from, (int) to);
+        }
+    }
+
+    /*
+     * The concatenation of two ropes.
+     */
+    private static final class Concat extends Rope {
+        private final Rope left;
+        private final Rope right;
+
+        Concat(Rope left, Rope right) {
+            super(left.length + right.length, Math.max(left.depth, right.depth) + 1);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        char charAtUnchecked(long index) {
+            return (index < left.length) ?
+                    left.charAtUnchecked(index) : right.charAtUnchecked(index - left.length);
+        }
+
+        @Override
+        long computeFingerprint() {
+            return left.fingerprint() * power(right.length) + right.fingerprint();
+        }
+
+        @Override
+        void writeRange(Appendable out, long from, long to) throws IOException {
+            if (from < left.length) {
+                left.writeRange(out, from, Math.min(to, left.length));
+            }
+            if (to > left.length) {
+                right.writeRange(out, Math.max(from, left.length) - left.length, to - left.length);
+            }
+        }
+    }
+
+    /*
+     * A range of another rope.
+     */
+    private static final class Slice extends Rope {
+        private final Rope base;
+        private final long offset;
+
+        Slice(Rope base, long offset, long sliceLength) {
+            super(sliceLength, base.depth + 1);
+            this.base = base;
+            this.offset = offset;
+        }
+
+        @Override
+        char charAtUnchecked(long index) {
+            return base.charAtUnchecked(offset + index);
+        }
+
+        @Override
+        long computeFingerprint() {
+            if (offset + longLength() == base.length) {  // a suffix, such as a request without its prefix
+                return base.fingerprint() - base.fingerprintOfRange(0, offset) * power(longLength());
+            }
+            return super.computeFingerprint();
+        }
+
+        @Override
+        void writeRange(Appendable out, long from, long to) throws IOException {
+            base.writeRange(out, offset + from, offset + to);
+        }
+
+        @Override
+        Rope slice(long sliceOffset, long sliceLength) {
+            return new Slice(base, offset + sliceOffset, sliceLength);  // never a slice of a slice
+        }
+    }
+
+    /*
+     * An output that only hashes the characters appended to it, for fingerprinting.
+     */
+    private static final class Hasher implements Appendable {
+        private long hash = 0;
+
+        @Override
+        public Appendable append(CharSequence chars) {
+            return append(chars, 0, chars.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence chars, int start, int end) {
+            long h = hash;
+            for (int i = start; i < end; i++) {
+                h = h * FINGERPRINT_BASE + chars.charAt(i);
+            }
+            hash = h;
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            hash = hash * FINGERPRINT_BASE + c;
+            return this;
+        }
+    }
+}
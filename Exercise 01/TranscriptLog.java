@@ -0,0 +1,223 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only transcript of chats, written into memory-mapped segment files of a fixed size in a
+ * directory. Every turn is a record of a fixed header - the record's length, conversation, turn and bot id -
+ * followed by the UTF-8 bytes of the statement. A new segment is all zeros, so a zero length marks the end
+ * of the written records of a segment. The writes to a mapped segment are plain, with no ordering for
+ * another thread or process, so a segment should be read only after it was flushed or closed.
+ * When a record doesn't fit in the current segment, a new segment is created (rolled).
+ * The statement is encoded straight into the mapped segment, so appending a turn allocates nothing.
+ * It is not thread-safe: every turn should be appended by the same thread.
+ *
+ * @author Roei Dahuki
+ */
+class TranscriptLog implements Appendable, AutoCloseable {
+    /* Constants: */
+    /**
+     * The format of the names of the segment files, by their sequence number.
+     */
+    static final String SEGMENT_NAME_FORMAT = "transcript-%08d.log";
+
+    /**
+     * The glob of the names of the segment files, which sort in the order of their sequence numbers.
+     */
+    static final String SEGMENT_NAME_GLOB = "transcript-*.log";
+
+    /**
+     * The byte order of the records' headers.
+     */
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * The offsets of the fields of a record's header, and its size.
+     */
+    static final int LENGTH_OFFSET = 0, CONVERSATION_OFFSET = 4, TURN_OFFSET = 12, BOT_OFFSET = 20,
+            HEADER_SIZE = 24;
+
+    /**
+     * The default size of a segment, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+
+    private static final int MAX_BYTES_PER_CHAR = 3;  // a surrogate pair of 2 chars is encoded to 4 bytes
+    private static final byte REPLACEMENT = '?';  // for unpaired surrogates, as String.getBytes does
+    private static final String RECORD_TOO_LONG_MSG = "A statement of %d chars may not fit in a segment";
+
+    /* Fields: */
+    private final Path directory;
+    private final int segmentSize;
+    private int segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private char pendingHighSurrogate = 0;  // the first half of a pair that was split between rope segments
+    private long bytesWritten = 0;
+
+    /**
+     * Opens a transcript in the given directory, creating it if needed. The records are appended to a new
+     * segment, after the existing ones.
+     *
+     * @param directory   the directory of the segment files.
+     * @param segmentSize the size of a segment, in bytes.
+     * @throws IOException if the directory or the first segment could not be created.
+     */
+    public TranscriptLog(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        this.segmentNumber = TranscriptReader.listSegments(directory).size();
+        roll();
+    }
+
+    /**
+     * Appends a single turn to the transcript.
+     *
+     * @param conversation the id of the conversation.
+     * @param turn         the number of the turn in the conversation.
+     * @param botId        the id of the bot whose statement it is.
+     * @param statement    the statement (a Rope is streamed segment after segment, without flattening).
+     * @throws IOException              if a new segment could not be created.
+     * @throws IllegalArgumentException if the statement is too long for a segment.
+     */
+    public void append(long conversation, long turn, int botId, CharSequence statement) throws IOException {
+        long maxLength = (statement instanceof Rope) ? ((Rope) statement).longLength() : statement.length();
+        long maxBytes = HEADER_SIZE + MAX_BYTES_PER_CHAR * maxLength;
+        if (maxBytes > segmentSize) {
+            throw new IllegalArgumentException(String.format(RECORD_TOO_LONG_MSG, maxLength));
+        }
+        if (maxBytes > segment.remaining()) {
+            roll();
+        }
+        int start = segment.position();
+        segment.position(start + HEADER_SIZE);
+        if (statement instanceof Rope) {
+            ((Rope) statement).writeTo(this);
+        } else {
+            append(statement, 0, statement.length());
+        }
+        if (pendingHighSurrogate != 0) {
+            segment.put(REPLACEMENT);
+            pendingHighSurrogate = 0;
+        }
+        segment.putLong(start + CONVERSATION_OFFSET, conversation);
+        segment.putLong(start + TURN_OFFSET, turn);
+        segment.putInt(start + BOT_OFFSET, botId);
+        segment.putInt(start + LENGTH_OFFSET, segment.position() - start);  // the record is complete
+        bytesWritten += segment.position() - start;
+    }
+
+    /**
+     * Encodes the given characters into the current record.
+     * Meant for <code>Rope.writeTo</code>, within <code>append</code>.
+     *
+     * @param chars the characters to encode.
+     * @param start the index of the first character.
+     * @param end   the index after the last character.
+     * @return this transcript.
+     */
+    @Override
+    public TranscriptLog append(CharSequence chars, int start, int end) {
+        for (int i = start; i < end; i++) {
+            append(chars.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Encodes the given characters into the current record.
+     * Meant for <code>Rope.writeTo</code>, within <code>append</code>.
+     *
+     * @param chars the characters to encode.
+     * @return this transcript.
+     */
+    @Override
+    public TranscriptLog append(CharSequence chars) {
+        return append(chars, 0, chars.length());
+    }
+
+    /**
+     * Encodes the given character into the current record, as UTF-8.
+     * Meant for <code>Rope.writeTo</code>, within <code>append</code>.
+     *
+     * @param c the character to encode.
+     * @return this transcript.
+     */
+    @Override
+    public TranscriptLog append(char c) {
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                segment.put((byte) (0xF0 | (codePoint >> 18)));
+                segment.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                segment.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                segment.put((byte) (0x80 | (codePoint & 0x3F)));
+                return this;
+            }
+            segment.put(REPLACEMENT);
+        }
+        if (c < 0x80) {
+            segment.put((byte) c);
+        } else if (c < 0x800) {
+            segment.put((byte) (0xC0 | (c >> 6)));
+            segment.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            segment.put(REPLACEMENT);
+        } else {
+            segment.put((byte) (0xE0 | (c >> 12)));
+            segment.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            segment.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return this;
+    }
+
+    /**
+     * Getter for the number of bytes written.
+     *
+     * @return the total size of the appended records.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Forces the written records of the current segment to the storage.
+     */
+    public void flush() {
+        segment.force();
+    }
+
+    /**
+     * Flushes the current segment, and closes it.
+     *
+     * @throws IOException if closing the segment's file failed.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /*
+     * Flushes and closes the current segment (if any), and maps a new one.
+     */
+    private void roll() throws IOException {
+        if (channel != null) {
+            close();
+        }
+        Path path = directory.resolve(String.format(SEGMENT_NAME_FORMAT, segmentNumber++));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.order(BYTE_ORDER);
+    }
+}
@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads a transcript written by a TranscriptLog. On construction, it maps every segment and indexes the
+ * records by their conversation (only the headers are read), so a turn of a conversation is found by a
+ * binary search over the records of that conversation, and the following turns are read in order.
+ * Usage: <code>java TranscriptReader directory conversation [fromTurn] [turnsCount]</code>
+ *
+ * @author Roei Dahuki
+ */
+class TranscriptReader {
+    /* Constants: */
+    private static final int INITIAL_CAPACITY = 1 << 4;
+    private static final int OFFSET_BITS = Integer.SIZE;  // a position is (segment << 32 | offset)
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final String USAGE_MSG =
+            "Usage: java TranscriptReader directory conversation [fromTurn] [turnsCount]";
+    private static final String TURN_FORMAT = "%d. BOT#%d: %s%n";
+
+    /* Fields: */
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final HashMap<Long, Positions> conversations = new HashMap<>();
+    // the current record:
+    private Positions positions;
+    private int index = -1;
+
+    /**
+     * Maps the segments of the transcript in the given directory, and indexes their records.
+     *
+     * @param directory the directory of the segment files.
+     * @throws IOException if a segment could not be read.
+     */
+    public TranscriptReader(Path directory) throws IOException {
+        for (Path path : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                segment.order(TranscriptLog.BYTE_ORDER);
+                index(segment, segments.size());
+                segments.add(segment);
+            }
+        }
+    }
+
+    /**
+     * Lists the segment files in the given directory, in the order they were written.
+     *
+     * @param directory the directory of the segment files.
+     * @return the paths of the segments, or an empty list if the directory doesn't exist.
+     * @throws IOException if the directory could not be read.
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return paths;
+        }
+        try (DirectoryStream<Path> stream =
+                     Files.newDirectoryStream(directory, TranscriptLog.SEGMENT_NAME_GLOB)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    /*
+     * Adds the positions of the records of the given segment to their conversations.
+     */
+    private void index(MappedByteBuffer segment, int segmentNumber) {
+        int offset = 0;
+        while (offset + TranscriptLog.HEADER_SIZE <= segment.limit()) {
+            int length = segment.getInt(offset + TranscriptLog.LENGTH_OFFSET);
+            if (length == 0) {  // the end of the written records
+                break;
+            }
+            long conversation = segment.getLong(offset + TranscriptLog.CONVERSATION_OFFSET);
+            conversations.computeIfAbsent(conversation, c -> new Positions())
+                    .add(((long) segmentNumber << OFFSET_BITS) | offset);
+            offset += length;
+        }
+    }
+
+    /**
+     * Returns the number of turns of the given conversation in the transcript.
+     *
+     * @param conversation the id of the conversation.
+     * @return the number of its records.
+     */
+    public int getTurnsCount(long conversation) {
+        Positions conversationPositions = conversations.get(conversation);
+        return (conversationPositions == null) ? 0 : conversationPositions.size;
+    }
+
+    /**
+     * Moves to the first record of the given conversation whose turn is at least the given turn.
+     *
+     * @param conversation the id of the conversation.
+     * @param turn         the turn to seek.
+     * @return true if there is such a record, false otherwise.
+     */
+    public boolean seek(long conversation, long turn) {
+        positions = conversations.get(conversation);
+        if (positions == null) {
+            return false;
+        }
+        int low = 0, high = positions.size;  // the turns of a conversation are appended in increasing order
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            index = middle;
+            if (getTurn() < turn) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        index = low;
+        return index < positions.size;
+    }
+
+    /**
+     * Moves to the next record of the current conversation.
+     *
+     * @return true if there is such a record, false otherwise.
+     */
+    public boolean next() {
+        if (positions == null || index >= positions.size) {
+            return false;
+        }
+        return ++index < positions.size;
+    }
+
+    /**
+     * Getter for the turn of the current record.
+     *
+     * @return the number of the turn in its conversation.
+     */
+    public long getTurn() {
+        return segment().getLong(offset() + TranscriptLog.TURN_OFFSET);
+    }
+
+    /**
+     * Getter for the bot of the current record.
+     *
+     * @return the id of the bot whose statement it is.
+     */
+    public int getBotId() {
+        return segment().getInt(offset() + TranscriptLog.BOT_OFFSET);
+    }
+
+    /**
+     * Decodes the statement of the current record.
+     *
+     * @return the statement.
+     */
+    public String getStatement() {
+        MappedByteBuffer segment = segment();
+        int offset = offset();
+        int length = segment.getInt(offset + TranscriptLog.LENGTH_OFFSET) - TranscriptLog.HEADER_SIZE;
+        byte[] bytes = new byte[length];
+        segment.get(offset + TranscriptLog.HEADER_SIZE, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Returns the segment of the current record.
+     */
+    private MappedByteBuffer segment() {
+        return segments.get((int) (positions.values[index] >>> OFFSET_BITS));
+    }
+
+    /*
+     * Returns the offset of the current record in its segment.
+     */
+    private int offset() {
+        return (int) (positions.values[index] & OFFSET_MASK);
+    }
+
+    /**
+     * main function.
+     * Prints turns of a conversation from a transcript, by the command line arguments.
+     *
+     * @param args the directory of the transcript, the conversation, and optionally the first turn and the
+     *             number of turns to print.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(USAGE_MSG);
+            return;
+        }
+        long conversation = Long.parseLong(args[1]);
+        long fromTurn = (args.length > 2) ? Long.parseLong(args[2]) : 0;
+        long turnsCount = (args.length > 3) ? Long.parseLong(args[3]) : Long.MAX_VALUE;
+        TranscriptReader reader;
+        try {
+            reader = new TranscriptReader(Path.of(args[0]));
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        if (!reader.seek(conversation, fromTurn)) {
+            return;
+        }
+        long printed = 0;
+        do {
+            System.out.printf(TURN_FORMAT, reader.getTurn(), reader.getBotId() + 1, reader.getStatement());
+        } while (++printed < turnsCount && reader.next());
+    }
+
+    /*
+     * A growable array of the positions of a conversation's records.
+     */
+    private static class Positions {
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        void add(long position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+    }
+}
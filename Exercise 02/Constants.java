@@ -1,7 +1,8 @@
 public class Constants {
     public final static String UNKNOWN_PLAYER_NAME =
             "Choose a player, and start again.\n" +
-                    "The players: [human, clever, whatever, genius]";
+                    "The players: [human, clever, whatever, genius]\n" +
+                    "Or remote players: [local:<player>, engine:<player>, remote:<port>]";
 
     public final static String UNKNOWN_RENDERER_NAME =
             "Choose a renderer, and start again. \n" +
@@ -0,0 +1,163 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * The engine side of the RemoteProtocol, that plays by the logic of any given (in-JVM) Player.
+ * It rebuilds the board from the deltas of every turn frame, lets its player play on it, and answers with
+ * the square the player has marked.
+ * It can run in-process on its own thread (a stand-in engine for checking the protocol and for measuring its
+ * overhead), or as a separate process over stdin/stdout, using its main method.
+ */
+public class LocalEngine implements Runnable {
+    /* Constants: */
+    private static final int PIPE_BUFFER_SIZE = 1024;  // bigger than the largest possible frame
+    private static final String THREAD_NAME = "local-engine";
+    private static final String USAGE_MSG = "Usage: java LocalEngine <player type>";
+
+    /* Fields: */
+    private final Player player;  // the logic this engine plays by
+    private final DataInputStream in;  // the stream of the turn frames
+    private final DataOutputStream out;  // the stream of the moves
+    private Board board = null;  // the engine's copy of the current game's board
+    private Mark[][] known = null;  // the marks of board before the player's turn
+
+    /**
+     * Constructor, wraps the given streams with buffers, so every move is sent in a single flush.
+     *
+     * @param player the logic this engine plays by.
+     * @param in     the stream from the remote player.
+     * @param out    the stream to the remote player.
+     */
+    public LocalEngine(Player player, InputStream in, OutputStream out) {
+        this.player = player;
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    /**
+     * Starts an engine that plays by the given player on a daemon thread of this JVM, connected through
+     * in-memory pipes, and returns the remote player that speaks with it.
+     *
+     * @param player the logic of the engine.
+     * @return the remote player connected to the new engine.
+     * @throws IOException if the pipes could not be connected.
+     */
+    public static RemotePlayer connect(Player player) throws IOException {
+        PipedOutputStream toEngine = new PipedOutputStream();
+        PipedInputStream engineIn = new PipedInputStream(toEngine, PIPE_BUFFER_SIZE);
+        PipedOutputStream engineOut = new PipedOutputStream();
+        PipedInputStream fromEngine = new PipedInputStream(engineOut, PIPE_BUFFER_SIZE);
+
+        Thread engineThread = new Thread(new LocalEngine(player, engineIn, engineOut), THREAD_NAME);
+        engineThread.setDaemon(true);
+        engineThread.start();
+        return new RemotePlayer(fromEngine, toEngine, () -> {
+            toEngine.close();
+            fromEngine.close();
+        });
+    }
+
+    /*
+     * Reads the rest of a turn frame, and applies it on the engine's board.
+     *
+     * @return the mark to play with in this turn.
+     * @throws IOException if reading failed or the frame is malformed.
+     */
+    private Mark readTurn() throws IOException {
+        Mark mark = RemoteProtocol.markOf(in.readUnsignedByte());
+        int size = in.readUnsignedByte();
+        if (size != RemoteProtocol.SAME_GAME) {  // a new game has started
+            board = new Board(size);
+            known = new Mark[size][size];
+        } else if (board == null) {
+            throw new IOException("A turn frame continues a game that never started");
+        }
+        int count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            int row = in.readUnsignedByte();
+            int col = in.readUnsignedByte();
+            Mark deltaMark = RemoteProtocol.markOf(in.readUnsignedByte());
+            board.putMark(deltaMark, row, col);
+        }
+        for (int row = 0; row < known.length; row++) {
+            for (int col = 0; col < known.length; col++) {
+                known[row][col] = board.getMark(row, col);
+            }
+        }
+        return mark;
+    }
+
+    /*
+     * Lets the player play its turn on the engine's board, and sends back the square it has marked.
+     *
+     * @param mark the mark to play with.
+     * @throws IOException if the player did not mark any square, or writing failed.
+     */
+    private void playTurn(Mark mark) throws IOException {
+        player.playTurn(board, mark);
+        for (int row = 0; row < known.length; row++) {
+            for (int col = 0; col < known.length; col++) {
+                if (board.getMark(row, col) != known[row][col]) {
+                    RemoteProtocol.writeMove(out, row, col);
+                    return;
+                }
+            }
+        }
+        throw new IOException("The engine's player did not mark any square");
+    }
+
+    /**
+     * Serves turn frames until a closing frame arrives, or the remote player disappears.
+     *
+     * @throws UncheckedIOException if the connection failed in the middle of a frame.
+     */
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                int opcode;
+                try {
+                    opcode = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    return;  // the remote player has gone without saying goodbye
+                }
+                if (opcode != RemoteProtocol.TURN) {  // BYE, or something this engine can't serve
+                    return;
+                }
+                playTurn(readTurn());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // the other side is already gone
+            }
+        }
+    }
+
+    /**
+     * Runs an engine process over stdin/stdout, that plays by the player type given in the command line
+     * (the same types as of the Tournament).
+     *
+     * @param args command line arguments, the type of the engine's player.
+     */
+    public static void main(String[] args) {
+        Player player = (args.length == 1) ? new PlayerFactory().buildPlayer(args[0].toLowerCase()) : null;
+        if (player == null) {
+            System.err.println(USAGE_MSG);
+            return;
+        }
+        new LocalEngine(player, System.in, System.out).run();
+    }
+}
@@ -1,17 +1,38 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * A factory for generating players, using specific implementations of the generic interface "Player".
  * This helps to ensure the validity of the principle of individual responsibility.
+ * Besides the in-JVM players, it can build remote players, using one of the prefixes:
+ * "local:TYPE" (an in-process LocalEngine playing TYPE), "engine:TYPE" (a LocalEngine process playing
+ * TYPE, over stdin/stdout) and "remote:PORT" (an engine listening on a loopback port).
  */
 public class PlayerFactory {
+    /* Constants: */
+    private static final String LOCAL_PREFIX = "local:";
+    private static final String ENGINE_PREFIX = "engine:";
+    private static final String REMOTE_PREFIX = "remote:";
+    private static final String ENGINE_MAIN_CLASS = "LocalEngine";
 
     /**
      * Generates a player of specific type, according to a given string.
      *
      * @param type the string represents the wanted type of player.
      * @return a generated player.
+     * @throws UncheckedIOException if the type is of a remote player, and connecting to it failed.
      */
     public Player buildPlayer(String type) {
+        if (type.contains(":")) {
+            try {
+                return buildRemotePlayer(type);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         Player player = null;
         switch (type) {
             case "human":
@@ -29,4 +50,31 @@ public class PlayerFactory {
         }
         return player;
     }
+
+    /*
+     * Generates a remote player, according to a given string with one of the remote prefixes.
+     *
+     * @param type the string represents the wanted type of remote player.
+     * @return a generated remote player, or null if the type is unknown.
+     * @throws IOException if connecting to the engine failed.
+     */
+    private Player buildRemotePlayer(String type) throws IOException {
+        if (type.startsWith(LOCAL_PREFIX)) {
+            Player enginePlayer = buildPlayer(type.substring(LOCAL_PREFIX.length()));
+            return (enginePlayer == null) ? null : LocalEngine.connect(enginePlayer);
+        }
+        if (type.startsWith(ENGINE_PREFIX)) {
+            Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+            return RemotePlayer.spawn(List.of(java.toString(), "-cp", System.getProperty("java.class.path"),
+                    ENGINE_MAIN_CLASS, type.substring(ENGINE_PREFIX.length())));
+        }
+        if (type.startsWith(REMOTE_PREFIX)) {
+            try {
+                return RemotePlayer.connectLoopback(Integer.parseInt(type.substring(REMOTE_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                return null;  // the port is a typo, just like an unknown player name
+            }
+        }
+        return null;
+    }
 }
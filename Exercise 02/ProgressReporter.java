@@ -0,0 +1,93 @@
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the progress of a running tournament, from a timer thread of its own.
+ * Every period it samples the TournamentProgress counters, and prints the completed rounds, the throughput
+ * (games/sec since the previous sample), the running win rates and the estimated time to the end.
+ * The tournament's thread is never blocked or slowed down by the reporter.
+ */
+public class ProgressReporter implements AutoCloseable {
+    /* Constants: */
+    private static final String PROGRESS_MSG =
+            "[%d/%d rounds, %.1f%%] %.0f games/sec | %s: %.1f%% | %s: %.1f%% | ties: %.1f%% | ETA: %.1fs%n";
+    private static final String THREAD_NAME = "tournament-progress";
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double PERCENT = 100.0;
+
+    /* Fields: */
+    private final TournamentProgress progress;  // the counters to sample
+    private final long totalRounds;  // the number of rounds of the whole tournament
+    private final String[] playerNames;  // the names of the 2 players, for the message
+    private final PrintStream out;  // where the reports are printed
+    private final ScheduledExecutorService timer;  // the single daemon thread of the reporter
+    private long lastRounds = 0;  // the completed rounds in the previous sample
+    private long lastNanos;  // the time of the previous sample
+
+    /**
+     * Constructor, initialize the reporter without starting it.
+     *
+     * @param progress    the counters of the tournament to report.
+     * @param totalRounds the number of rounds of the whole tournament.
+     * @param playerName1 the name of the first player.
+     * @param playerName2 the name of the second player.
+     * @param out         the stream to print the reports into.
+     */
+    public ProgressReporter(TournamentProgress progress, long totalRounds, String playerName1,
+                            String playerName2, PrintStream out) {
+        this.progress = progress;
+        this.totalRounds = totalRounds;
+        this.playerNames = new String[]{playerName1, playerName2};
+        this.out = out;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);  // a forgotten reporter never keeps the JVM alive
+            return thread;
+        });
+    }
+
+    /**
+     * Starts reporting, once every given period.
+     *
+     * @param periodMillis the time between two reports, in milliseconds.
+     */
+    public void start(long periodMillis) {
+        lastNanos = System.nanoTime();
+        timer.scheduleAtFixedRate(this::report, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * Calculates the percentage of a part out of a whole, where an empty whole is 0%.
+     */
+    private static double percentOf(long part, long whole) {
+        return (whole == 0) ? 0 : PERCENT * part / whole;
+    }
+
+    /*
+     * Samples the counters, and prints a single report line.
+     */
+    private void report() {
+        long nanos = System.nanoTime();
+        long wins1 = progress.getWins(0);  // the wins are read before the rounds, see TournamentProgress
+        long wins2 = progress.getWins(1);
+        long rounds = progress.getCompletedRounds();
+        double seconds = (nanos - lastNanos) / NANOS_PER_SECOND;
+        double gamesPerSecond = (rounds - lastRounds) / seconds;
+        double eta = (gamesPerSecond > 0) ? (totalRounds - rounds) / gamesPerSecond : Double.POSITIVE_INFINITY;
+        out.printf(PROGRESS_MSG, rounds, totalRounds, percentOf(rounds, totalRounds), gamesPerSecond,
+                playerNames[0], percentOf(wins1, rounds), playerNames[1], percentOf(wins2, rounds),
+                percentOf(rounds - wins1 - wins2, rounds), eta);
+        lastRounds = rounds;
+        lastNanos = nanos;
+    }
+
+    /**
+     * Stops reporting.
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+}
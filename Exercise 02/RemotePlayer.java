@@ -0,0 +1,159 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a player whose logic lives outside of this class - an engine on the other side of a byte stream
+ * (a loopback socket, the stdin/stdout pipe of another process, or an in-process LocalEngine).
+ * The player keeps a shadow copy of the board as the engine knows it, so that every turn sends only the
+ * batch of cells that were changed since its previous turn, in a single frame of the RemoteProtocol.
+ */
+public class RemotePlayer implements Player, AutoCloseable {
+    /* Constants: */
+    private static final int MAX_DELTAS = 255;  // the number of deltas must fit in an unsigned byte
+
+    /* Fields: */
+    private final DataInputStream in;  // the stream of the engine's moves
+    private final DataOutputStream out;  // the stream of the turn frames to the engine
+    private final Closeable connection;  // the socket / process / thread behind the streams
+    private final byte[] deltas = new byte[MAX_DELTAS * RemoteProtocol.DELTA_BYTES];  // reused every turn
+    private Board lastBoard = null;  // the board of the current game, to notice that a new game started
+    private Mark[][] shadow = null;  // the board as the engine knows it
+
+    /**
+     * Constructor, wraps the given streams with buffers, so every frame is sent in a single flush.
+     *
+     * @param in         the stream from the engine.
+     * @param out        the stream to the engine.
+     * @param connection the resource to be closed when this player is closed.
+     */
+    public RemotePlayer(InputStream in, OutputStream out, Closeable connection) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.connection = connection;
+    }
+
+    /**
+     * Connects to an engine that listens on the given port of the loopback address.
+     *
+     * @param port the port of the engine.
+     * @return a player that plays by the engine's moves.
+     * @throws IOException if the connection failed.
+     */
+    public static RemotePlayer connectLoopback(int port) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);  // a frame is a whole turn, there is no point in delaying it
+        return new RemotePlayer(socket.getInputStream(), socket.getOutputStream(), socket);
+    }
+
+    /**
+     * Starts the given command as a sub-process, and speaks to it over its stdin and stdout.
+     *
+     * @param command the command (and its arguments) of the engine process.
+     * @return a player that plays by the engine's moves.
+     * @throws IOException if the process could not be started.
+     */
+    public static RemotePlayer spawn(List<String> command) throws IOException {
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        return new RemotePlayer(process.getInputStream(), process.getOutputStream(), process::destroy);
+    }
+
+    /*
+     * Starts tracking a new game: the engine knows nothing about the new board yet.
+     *
+     * @param board the board of the new game.
+     */
+    private void startGame(Board board) {
+        lastBoard = board;
+        shadow = new Mark[board.getSize()][board.getSize()];
+        for (Mark[] row : shadow) {
+            Arrays.fill(row, Mark.BLANK);
+        }
+    }
+
+    /*
+     * Collects every cell that differs between the board and the shadow into the deltas buffer, and brings
+     * the shadow up to date.
+     *
+     * @param board the current board.
+     * @return the number of collected deltas.
+     */
+    private int collectDeltas(Board board) {
+        int count = 0;
+        for (int row = 0; row < shadow.length; row++) {
+            for (int col = 0; col < shadow.length; col++) {
+                Mark mark = board.getMark(row, col);
+                if (mark != shadow[row][col]) {
+                    int offset = count++ * RemoteProtocol.DELTA_BYTES;
+                    deltas[offset] = (byte) row;
+                    deltas[offset + 1] = (byte) col;
+                    deltas[offset + 2] = (byte) mark.ordinal();
+                    shadow[row][col] = mark;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Plays the turn by the engine's decision:
+     * Sends one frame with all the board changes since the previous turn, then waits for the engine's move
+     * and puts the given mark in it.
+     *
+     * @param board the current board to play on.
+     * @param mark  the mark of this player in this turn.
+     * @throws UncheckedIOException  if the connection to the engine failed.
+     * @throws IllegalStateException if the engine answered with an illegal move.
+     */
+    @Override
+    public void playTurn(Board board, Mark mark) {
+        boolean newGame = (board != lastBoard);
+        if (newGame) {
+            startGame(board);
+        }
+        int[] move;
+        try {
+            int count = collectDeltas(board);
+            out.writeByte(RemoteProtocol.TURN);
+            out.writeByte(mark.ordinal());
+            out.writeByte(newGame ? board.getSize() : RemoteProtocol.SAME_GAME);
+            out.writeByte(count);
+            out.write(deltas, 0, count * RemoteProtocol.DELTA_BYTES);
+            out.flush();
+            move = RemoteProtocol.readMove(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!board.putMark(mark, move[0], move[1])) {
+            throw new IllegalStateException("The engine played an illegal move: " + move[0] + "," + move[1]);
+        }
+        shadow[move[0]][move[1]] = mark;  // the engine already knows its own move
+    }
+
+    /**
+     * Tells the engine that there are no more turns, and closes the connection to it.
+     *
+     * @throws IOException if closing the connection failed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.writeByte(RemoteProtocol.BYE);
+            out.flush();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The binary protocol spoken between a RemotePlayer (inside the tournament) and an external engine (a
+ * LocalEngine, another process over stdin/stdout, or a loopback socket).
+ * Every turn is a single frame, that carries the whole batch of board changes since the last turn of the same
+ * player, so there is exactly one flush and one reply per move, no matter how many cells were changed.
+ * <p>
+ * Turn frame (player -> engine):
+ * <pre>
+ *     byte  TURN
+ *     byte  mark ordinal of the player to move
+ *     byte  board size (0 if the game is the same as in the previous frame)
+ *     byte  number of deltas
+ *     deltas: byte row, byte col, byte mark ordinal
+ * </pre>
+ * Move frame (engine -> player): <code>byte row, byte col</code>.
+ * Closing frame (player -> engine): <code>byte BYE</code>.
+ */
+final class RemoteProtocol {
+    /* Constants: */
+    /**
+     * The opcode of a turn frame.
+     */
+    static final byte TURN = 1;
+
+    /**
+     * The opcode of a closing frame, after it the engine shuts down.
+     */
+    static final byte BYE = 2;
+
+    /**
+     * The "board size" value of a turn frame which continues the game of the previous frame.
+     */
+    static final byte SAME_GAME = 0;
+
+    /**
+     * The size of a single delta in a turn frame, in bytes.
+     */
+    static final int DELTA_BYTES = 3;
+
+    private static final Mark[] MARKS = Mark.values();
+
+    /*
+     * private constructor, this class holds only constants and static helpers.
+     */
+    private RemoteProtocol() {}
+
+    /**
+     * Translates a mark ordinal read from the stream back into a Mark.
+     *
+     * @param ordinal the ordinal that was read.
+     * @return the matching Mark.
+     * @throws IOException if the ordinal does not represent any Mark.
+     */
+    static Mark markOf(int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= MARKS.length) {
+            throw new IOException("Illegal mark in remote frame: " + ordinal);
+        }
+        return MARKS[ordinal];
+    }
+
+    /**
+     * Writes a move frame and flushes it.
+     *
+     * @param out the stream to the player.
+     * @param row first coordinate of the move.
+     * @param col second coordinate of the move.
+     * @throws IOException if writing failed.
+     */
+    static void writeMove(DataOutputStream out, int row, int col) throws IOException {
+        out.writeByte(row);
+        out.writeByte(col);
+        out.flush();
+    }
+
+    /**
+     * Reads a move frame.
+     *
+     * @param in the stream from the engine.
+     * @return the move as {row, col}.
+     * @throws IOException if reading failed.
+     */
+    static int[] readMove(DataInputStream in) throws IOException {
+        int row = in.readUnsignedByte();
+        int col = in.readUnsignedByte();
+        return new int[]{row, col};
+    }
+}
@@ -1,3 +1,4 @@
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 
 /**
@@ -5,6 +6,7 @@ import java.util.Arrays;
  * The first player plays X on the odd rounds (with even index) and O on the even rounds (with odd index),
  * the second player does the opposite.
  * At the end of the tournament, it prints a message of the results.
+ * Optionally, it reports its progress periodically while it runs (see ProgressReporter).
  */
 public class Tournament {
     /* Constants: */
@@ -13,12 +15,14 @@ public class Tournament {
                     "Player 1, %s won: %d rounds\n" +
                     "Player 2, %s won: %d rounds\n" +
                     "Ties: %d\n";  // the format of the message to be printed at the end of the tournament
+    private static final int PROGRESS_PERIOD_ARG_INDEX = 6;  // the optional arg of the reporting period
 
     /* Fields: */
     private final int rounds;  // number of rounds in this tournament
     private final Renderer renderer;  // the renderer of the board in every game in this tournament
     private final Player[] players;  // an array of the 2 players in this tournament
     private final int[] wins;  // an array of the number of wins of each player
+    private final TournamentProgress progress = new TournamentProgress();  // live counters for reporting
 
     /**
      * Constructor, initialize the tournament by the given arguments,
@@ -36,6 +40,15 @@ public class Tournament {
         this.wins = new int[players.length];
     }
 
+    /**
+     * Getter for the live counters of this tournament, that may be read from any thread while it runs.
+     *
+     * @return the progress of this tournament.
+     */
+    public TournamentProgress getProgress() {
+        return progress;
+    }
+
     /**
      * Runs the loop of the tournament. In every iteration there is a new game, that is being run,
      * when the players are switching their Mark. At the end, the message of results is being printed.
@@ -55,11 +68,14 @@ public class Tournament {
             switch (winner) {
                 case X:
                     wins[x]++;
+                    progress.recordRound(x);
                     break;
                 case O:
                     wins[o]++;
+                    progress.recordRound(o);
                     break;
-                // otherwise - there was a draw, so there is no win to be counted.
+                default:  // otherwise - there was a draw, so there is no win to be counted.
+                    progress.recordRound(-1);
             }
         }
         int ties = rounds - Arrays.stream(wins).sum();  // = #(played games) - #(wins)
@@ -70,6 +86,7 @@ public class Tournament {
      * The main method, generates the fields of the tournament, by analyzing the given Strings arguments.
      * Checks the validity of the players' names (according to their factory's way of work), as this is the
      * only arguments that may be wrong (according to the ex. instructions).
+     * An optional 7th argument is the period (in milliseconds) of reporting the progress to stderr.
      *
      * @param args command line arguments (an array of Strings).
      */
@@ -91,14 +108,49 @@ public class Tournament {
         String[] playerNames = new String[]{args[4].toLowerCase(), args[5].toLowerCase()};
         Player[] players = new Player[playerNames.length];
         for (int i = 0; i < playerNames.length; i++) {
-            players[i] = playerFactory.buildPlayer(playerNames[i]);
+            try {
+                players[i] = playerFactory.buildPlayer(playerNames[i]);
+            } catch (UncheckedIOException e) {
+                closePlayers(players);  // the players that were already built may hold a process or socket
+                throw e;
+            }
             if (players[i] == null) {  // if there was a typo in some player name:
                 System.out.println(Constants.UNKNOWN_PLAYER_NAME);
+                closePlayers(players);
                 return;
             }
         }
 
         Tournament tournament = new Tournament(rounds, renderer, players[0], players[1]);
-        tournament.playTournament(size, winStreak, playerNames[0], playerNames[1]);
+        try {
+            if (args.length > PROGRESS_PERIOD_ARG_INDEX) {
+                try (ProgressReporter reporter = new ProgressReporter(tournament.getProgress(), rounds,
+                        playerNames[0], playerNames[1], System.err)) {
+                    reporter.start(Long.parseLong(args[PROGRESS_PERIOD_ARG_INDEX]));
+                    tournament.playTournament(size, winStreak, playerNames[0], playerNames[1]);
+                }
+            } else {
+                tournament.playTournament(size, winStreak, playerNames[0], playerNames[1]);
+            }
+        } finally {  // even if the tournament failed, the players may hold a process or socket
+            closePlayers(players);
+        }
+    }
+
+    /*
+     * Closes every player that holds an outer resource (such as the connection of a remote player).
+     *
+     * @param players the players of the tournament (some of them may be null, if they were not built).
+     */
+    private static void closePlayers(Player[] players) {
+        for (Player player : players) {
+            if (player instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) player).close();
+                } catch (Exception e) {
+                    System.err.println(e.getMessage());  // a failure to close doesn't change the outcome
+                }
+            }
+        }
     }
 }
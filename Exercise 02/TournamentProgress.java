@@ -0,0 +1,54 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The live counters of a running tournament: how many rounds were completed, and how many of them each
+ * player has won.
+ * The tournament's thread is the only writer, so every update is a plain ordered store (no lock and no
+ * compare-and-set on the per-game path), while any other thread may read a slightly stale, yet consistent
+ * enough, snapshot of the counters at any time.
+ */
+public class TournamentProgress {
+    /* Constants: */
+    private static final int ROUNDS_INDEX = 0;
+    private static final int FIRST_PLAYER_INDEX = 1;  // the wins of player i are in FIRST_PLAYER_INDEX + i
+    private static final int NUMBER_OF_PLAYERS = 2;
+
+    /* Fields: */
+    private final AtomicLongArray counters = new AtomicLongArray(FIRST_PLAYER_INDEX + NUMBER_OF_PLAYERS);
+
+    /**
+     * Records a completed round. Must be called only by the thread that runs the tournament.
+     *
+     * @param winnerIndex the index of the player who won the round (0 or 1), or -1 for a tie.
+     */
+    public void recordRound(int winnerIndex) {
+        // the rounds are updated first, so a reader that reads the wins before the rounds (see getWins)
+        // never sees more wins than rounds:
+        counters.lazySet(ROUNDS_INDEX, counters.get(ROUNDS_INDEX) + 1);
+        if (winnerIndex >= 0) {
+            int index = FIRST_PLAYER_INDEX + winnerIndex;
+            counters.lazySet(index, counters.get(index) + 1);
+        }
+    }
+
+    /**
+     * Getter for the number of completed rounds.
+     *
+     * @return the number of rounds completed so far.
+     */
+    public long getCompletedRounds() {
+        return counters.get(ROUNDS_INDEX);
+    }
+
+    /**
+     * Getter for the number of wins of a player.
+     * To get a consistent snapshot, read the wins of both players before the completed rounds: every round
+     * is counted before its win, so the rounds read afterwards are at least the wins.
+     *
+     * @param playerIndex the index of the player (0 or 1).
+     * @return the number of rounds this player has won so far.
+     */
+    public long getWins(int playerIndex) {
+        return counters.get(FIRST_PLAYER_INDEX + playerIndex);
+    }
+}
@@ -1,5 +1,6 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.Brick;
 import bricker.main.BrickerGameManager;
 import bricker.main.Constants;
 import danogl.GameObject;
@@ -39,7 +40,7 @@ public class CameraCollisionStrategy extends BasicCollisionStrategy {
      * @param otherObj  The other game object involved in the collision.
      */
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj) {
+    public void onCollision(Brick thisObj, GameObject otherObj) {
         super.onCollision(thisObj, otherObj);
 
         if (otherObj.getTag().equals(Constants.MAIN_BALL_TAG) && brickerGameManager.camera() == null) {
@@ -53,20 +54,23 @@ public class CameraCollisionStrategy extends BasicCollisionStrategy {
                     )
             );
             ballCollisionsSinceCameraWasSet = brickerGameManager.getBall().getCollisionCounter();
+            brickerGameManager.activateStrategy(this); // End the strategy on every frame, until reset
         }
     }
 
     /**
-     * Ends the camera behavior if the maximum number of ball collisions has been reached.
+     * Ends the camera behavior if the maximum number of ball collisions has been reached, and then
+     * deactivates the strategy.
      */
     @Override
     public void endStrategy() {
         super.endStrategy();
-        if (brickerGameManager.camera() != null) {
-            if ((brickerGameManager.getBall().getCollisionCounter() - ballCollisionsSinceCameraWasSet)
-                    > MAX_BALL_COLLISION_COUNTER) {
-                brickerGameManager.setCamera(null);
-            }
+        if (brickerGameManager.camera() == null) {  // if the camera was already reset (by a new game):
+            brickerGameManager.deactivateStrategy(this);
+        } else if ((brickerGameManager.getBall().getCollisionCounter() - ballCollisionsSinceCameraWasSet)
+                > MAX_BALL_COLLISION_COUNTER) {
+            brickerGameManager.setCamera(null);
+            brickerGameManager.deactivateStrategy(this);
         }
     }
 }
@@ -1,5 +1,6 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.Brick;
 import danogl.GameObject;
 
 /**
@@ -14,12 +15,13 @@ public interface CollisionStrategy {
      * @param thisObj   The current game object - brick.
      * @param otherObj  The other game object involved in the collision.
      */
-    void onCollision(GameObject thisObj, GameObject otherObj);
+    void onCollision(Brick thisObj, GameObject otherObj);
 
     /**
      * Ends the collision strategy.
-     * This method can be used to perform cleanup or additional actions when the brick holds this strategy
-     * was already blasted.
+     * A strategy whose collision has a lasting effect activates itself in the BrickerGameManager when it
+     * collides, and this method is called on every frame while it is active. It can be used to perform
+     * cleanup or additional actions, and the strategy deactivates itself when its effect is over.
      */
     void endStrategy();
 }
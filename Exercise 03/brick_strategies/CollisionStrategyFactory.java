@@ -3,92 +3,231 @@ package bricker.brick_strategies;
 import bricker.main.BrickerGameManager;
 import danogl.util.Vector2;
 
-import java.util.Random;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * A factory class responsible for creating collision strategies based on game parameters and conditions.
+ * <p>
+ * The strategy of a brick is encoded as a single byte - a strategy code - that holds the number of times
+ * (up to 3) every special strategy applies, in 2 bits per special strategy (by the ordinal of its
+ * SpecialCollisionStrategyIndicator). The basic strategy is the code 0, and a double behavior is the code
+ * of its (two or three) special strategies together. Codes are drawn from an alias table of the exact
+ * probabilities of the ex, so selecting the strategy of a brick costs two random numbers and no allocation,
+ * and the strategy objects are created only when a brick is hit.
  */
 public class CollisionStrategyFactory {
 
+    /**
+     * The strategy code of the basic strategy.
+     */
+    public static final byte BASIC_STRATEGY_CODE = 0;
+
     private static final int NUMBER_OF_SPECIAL_STRATEGIES = 5;
     private static final int MAX_NUMBER_OF_STRATEGIES_IN_BRICK = 3;
+    private static final double BASIC_STRATEGY_PROBABILITY = 0.5;
+    private static final int BITS_PER_STRATEGY = 2;
+    private static final int STRATEGY_COUNT_MASK = (1 << BITS_PER_STRATEGY) - 1;
 
+    // The creators of the special strategies (except for the double behavior), by their ordinal:
+    private static final StrategyCreator[] SPECIAL_STRATEGY_CREATORS = new StrategyCreator[]{
+            factory -> new PucksCollisionStrategy(factory.brickerGameManager, factory.ballSize,
+                    factory.ballSpeed),  // ADDITIONAL_BALLS
+            factory -> new PaddleCollisionStrategy(factory.brickerGameManager, factory.paddleDimensions,
+                    factory.paddleSpeed),  // ADDITIONAL_PADDLE
+            factory -> new CameraCollisionStrategy(factory.brickerGameManager),  // CHANGE_CAMERA
+            factory -> new StrikeCollisionStrategy(factory.brickerGameManager,
+                    factory.heartSize)  // ADD_STRIKE
+    };
+
+    // The alias table of the strategy codes:
+    private static final byte[] CODES;
+    private static final double[] PROBABILITIES;  // the probability to keep the code, rather than its alias
+    private static final int[] ALIASES;
+
+    static {
+        Map<Integer, Double> distribution = calcCodesDistribution(false, 0);
+        int numberOfCodes = distribution.size();
+        CODES = new byte[numberOfCodes];
+        PROBABILITIES = new double[numberOfCodes];
+        ALIASES = new int[numberOfCodes];
+        int index = 0;
+        for (Map.Entry<Integer, Double> entry : distribution.entrySet()) {
+            CODES[index] = entry.getKey().byteValue();
+            PROBABILITIES[index++] = entry.getValue() * numberOfCodes;
+        }
+        buildAliasTable();
+    }
+
+    private final BrickerGameManager brickerGameManager;
     private final float ballSize, ballSpeed;
     private final Vector2 paddleDimensions;
     private final float paddleSpeed;
     private final float heartSize;
-
-    private final Random rand = new Random();
+    private final CollisionStrategy basicCollisionStrategy;  // stateless, so shared by all the basic bricks
 
     /**
-     * Constructs a CollisionStrategyFactory with specified parameters.
+     * Constructs a CollisionStrategyFactory with specified parameters, for a new game.
      *
-     * @param ballSize          The size of the ball.
-     * @param ballSpeed         The speed of the ball.
-     * @param paddleDimensions  The dimensions of the paddle.
-     * @param paddleSpeed       The speed of the paddle.
-     * @param heartSize         The size of the heart.
+     * @param brickerGameManager The BrickerGameManager instance.
+     * @param ballSize           The size of the ball.
+     * @param ballSpeed          The speed of the ball.
+     * @param paddleDimensions   The dimensions of the paddle.
+     * @param paddleSpeed        The speed of the paddle.
+     * @param heartSize          The size of the heart.
      */
-    public CollisionStrategyFactory(float ballSize, float ballSpeed,
+    public CollisionStrategyFactory(BrickerGameManager brickerGameManager, float ballSize, float ballSpeed,
                                     Vector2 paddleDimensions, float paddleSpeed,
                                     float heartSize) {
+        this.brickerGameManager = brickerGameManager;
         this.ballSize = ballSize;
         this.ballSpeed = ballSpeed;
         this.paddleDimensions = paddleDimensions;
         this.paddleSpeed = paddleSpeed;
         this.heartSize = heartSize;
+        this.basicCollisionStrategy = new BasicCollisionStrategy(brickerGameManager);
+        PaddleCollisionStrategy.resetPaddle();  // the additional paddle of a previous game is gone
+    }
+
+    /**
+     * Selects a random strategy code. The strategy is chosen randomly from the exists implementations,
+     * according to the probabilities supplied in the ex: the basic strategy with probability 1/2, and
+     * otherwise each special strategy with the same probability - where the double behavior is two more
+     * special strategies, one of them may be a double behavior itself (up to 3 strategies in a brick).
+     *
+     * @return The selected strategy code.
+     */
+    public byte selectStrategyCode() {
+        int index = brickerGameManager.getRandom().nextInt(CODES.length);
+        boolean keep = brickerGameManager.getRandom().nextDouble() < PROBABILITIES[index];
+        return CODES[keep ? index : ALIASES[index]];
+    }
+
+    /**
+     * Creates the collision strategy of a strategy code: the shared basic strategy, a single special
+     * strategy, or a DoubleCollisionStrategy of all the special strategies of the code.
+     *
+     * @param strategyCode The strategy code.
+     * @return The collision strategy.
+     */
+    public CollisionStrategy createStrategy(byte strategyCode) {
+        if (strategyCode == BASIC_STRATEGY_CODE) {
+            return basicCollisionStrategy;
+        }
+        CollisionStrategy[] collisionStrategies = new CollisionStrategy[countStrategies(strategyCode)];
+        int index = 0;
+        for (int special = 0; special < SPECIAL_STRATEGY_CREATORS.length; special++) {
+            int count = getStrategyCount(strategyCode, special);
+            for (int i = 0; i < count; i++) {
+                collisionStrategies[index++] = SPECIAL_STRATEGY_CREATORS[special].create(this);
+            }
+        }
+        return (collisionStrategies.length == 1) ? collisionStrategies[0] :
+                new DoubleCollisionStrategy(brickerGameManager, collisionStrategies);
     }
 
     /**
-     * Selects and returns a random collision strategy. The strategy is chosen randomly from the exists
-     * implementations, according to the probabilities supplied in the ex. This method is recursive in order
-     * to create the double behavior (in the last case).
+     * Retrieves the number of times a special strategy applies in a strategy code.
      *
-     * @param brickerGameManager        The BrickerGameManager instance.
-     * @param selectForDouble          A boolean indicating whether to select a strategy for double collision.
+     * @param strategyCode The strategy code.
+     * @param special      The ordinal of the special strategy in SpecialCollisionStrategyIndicator.
+     * @return The number of times the special strategy applies.
+     */
+    public static int getStrategyCount(byte strategyCode, int special) {
+        return (strategyCode >> (special * BITS_PER_STRATEGY)) & STRATEGY_COUNT_MASK;
+    }
+
+    /*
+     * Counts the special strategies of a strategy code.
+     */
+    private static int countStrategies(byte strategyCode) {
+        int count = 0;
+        for (int special = 0; special < SPECIAL_STRATEGY_CREATORS.length; special++) {
+            count += getStrategyCount(strategyCode, special);
+        }
+        return count;
+    }
+
+    /*
+     * Calculates the exact distribution of the strategy codes, by the same recursion that selected the
+     * strategies: the basic strategy with probability 1/2 (except for the strategies of a double behavior),
+     * and otherwise a uniformly chosen special strategy - where the double behavior, if it's legal in this
+     * depth, is the sum of two more codes.
+     *
+     * @param selectForDouble           Whether the code is selected for a double behavior.
      * @param numberOfStrategiesInBrick The number of strategies currently in the brick.
-     * @return                          The selected collision strategy.
+     * @return The probability of every code, by code.
      */
-    public CollisionStrategy selectStrategy(BrickerGameManager brickerGameManager,
-                                            boolean selectForDouble, int numberOfStrategiesInBrick) {
-        CollisionStrategy collisionStrategy = null;
+    private static Map<Integer, Double> calcCodesDistribution(boolean selectForDouble,
+                                                              int numberOfStrategiesInBrick) {
+        Map<Integer, Double> distribution = new TreeMap<>();
         numberOfStrategiesInBrick++;
+        double specialProbability = 1;
+        if (!selectForDouble) {
+            distribution.put((int) BASIC_STRATEGY_CODE, BASIC_STRATEGY_PROBABILITY);
+            specialProbability -= BASIC_STRATEGY_PROBABILITY;
+        }
+        int numberOfSpecialStrategies = NUMBER_OF_SPECIAL_STRATEGIES - 1;
+        if (numberOfStrategiesInBrick < MAX_NUMBER_OF_STRATEGIES_IN_BRICK) {
+            // If it is legal (in this depth of the recursion) to draw DoubleCollisionStrategy:
+            numberOfSpecialStrategies++;
+        }
+        double probability = specialProbability / numberOfSpecialStrategies;
+        for (int special = 0; special < numberOfSpecialStrategies; special++) {
+            if (special != SpecialCollisionStrategyIndicator.DOUBLE_BEHAVIOR.ordinal()) {
+                distribution.merge(1 << (special * BITS_PER_STRATEGY), probability, Double::sum);
+                continue;
+            }
+            Map<Integer, Double> first = calcCodesDistribution(true, numberOfStrategiesInBrick);
+            Map<Integer, Double> second = calcCodesDistribution(true, numberOfStrategiesInBrick + 1);
+            for (Map.Entry<Integer, Double> firstEntry : first.entrySet()) {
+                for (Map.Entry<Integer, Double> secondEntry : second.entrySet()) {
+                    // The counts are at most 3, so adding the codes adds every count separately:
+                    distribution.merge(firstEntry.getKey() + secondEntry.getKey(),
+                            probability * firstEntry.getValue() * secondEntry.getValue(), Double::sum);
+                }
+            }
+        }
+        return distribution;
+    }
 
-        if (rand.nextBoolean() && !selectForDouble) {
-            // Basic strategy - with probability 1/2,
-            // cannot be returned for DoubleCollisionStrategy's array:
-            collisionStrategy = new BasicCollisionStrategy(brickerGameManager);
-        } else {
-            // Special strategy - each with probability 1/(2*numberOfSpecialStrategies),
-            // assuming the last strategy in the enum SpecialCollisionStrategyIndicator is DoubleCS:
-            int numberOfSpecialStrategies = NUMBER_OF_SPECIAL_STRATEGIES - 1;
-            if (numberOfStrategiesInBrick < MAX_NUMBER_OF_STRATEGIES_IN_BRICK) {
-                // If it is legal (in this depth of the recursion) to draw DoubleCollisionStrategy:
-                numberOfSpecialStrategies++;
+    /*
+     * Builds the alias table of the codes (Vose's method), from their probabilities scaled by the number of
+     * codes: every column keeps its code with its (scaled) probability, and the rest of it is an alias.
+     */
+    private static void buildAliasTable() {
+        int[] small = new int[CODES.length], large = new int[CODES.length];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < CODES.length; i++) {
+            ALIASES[i] = i;
+            if (PROBABILITIES[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
             }
-            switch (SpecialCollisionStrategyIndicator.values()[rand.nextInt(numberOfSpecialStrategies)]) {
-            case ADDITIONAL_BALLS:
-                collisionStrategy = new PucksCollisionStrategy(brickerGameManager, ballSize, ballSpeed);
-                break;
-            case ADDITIONAL_PADDLE:
-                collisionStrategy = new PaddleCollisionStrategy(brickerGameManager, paddleDimensions,
-                        paddleSpeed);
-                break;
-            case CHANGE_CAMERA:
-                collisionStrategy = new CameraCollisionStrategy(brickerGameManager);
-                break;
-            case ADD_STRIKE:
-                collisionStrategy = new StrikeCollisionStrategy(brickerGameManager, heartSize);
-                break;
-            case DOUBLE_BEHAVIOR:
-                CollisionStrategy[] collisionStrategies = new CollisionStrategy[]{
-                        selectStrategy(brickerGameManager, true, numberOfStrategiesInBrick++),
-                        selectStrategy(brickerGameManager, true, numberOfStrategiesInBrick)
-                };
-                collisionStrategy = new DoubleCollisionStrategy(brickerGameManager, collisionStrategies);
-                break;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount], more = large[--largeCount];
+            ALIASES[less] = more;  // the rest of less's column is filled by more
+            PROBABILITIES[more] -= 1 - PROBABILITIES[less];
+            if (PROBABILITIES[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
             }
         }
-        return collisionStrategy;
+        while (smallCount > 0) {
+            PROBABILITIES[small[--smallCount]] = 1;  // rounding errors
+        }
+        while (largeCount > 0) {
+            PROBABILITIES[large[--largeCount]] = 1;
+        }
+    }
+
+    /*
+     * Creates a special strategy, for the factory's game.
+     */
+    private interface StrategyCreator {
+        CollisionStrategy create(CollisionStrategyFactory factory);
     }
 }
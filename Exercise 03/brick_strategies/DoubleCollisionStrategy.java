@@ -1,5 +1,6 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.Brick;
 import bricker.main.BrickerGameManager; // Importing BrickerGameManager class from bricker.main package
 import danogl.GameObject; // Importing GameObject class from danogl package
 
@@ -30,7 +31,7 @@ public class DoubleCollisionStrategy extends BasicCollisionStrategy {
      * @param otherObj  The second colliding object.
      */
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj) {
+    public void onCollision(Brick thisObj, GameObject otherObj) {
         super.onCollision(thisObj, otherObj);
         for (var collisionStrategy : collisionStrategies) {
             collisionStrategy.onCollision(thisObj, otherObj);
@@ -39,6 +40,8 @@ public class DoubleCollisionStrategy extends BasicCollisionStrategy {
 
     /**
      * Ends the collision strategy by calling the endStrategy method of each contained collision strategy.
+     * Note that this strategy is never activated by itself - each contained strategy activates itself
+     * when it collides, and is ended by the BrickerGameManager.
      */
     @Override
     public void endStrategy() {
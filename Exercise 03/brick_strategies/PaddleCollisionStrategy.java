@@ -1,6 +1,8 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.Brick;
 import bricker.gameobjects.Paddle;
+import bricker.main.AssetRegistry;
 import bricker.main.BrickerGameManager;
 import bricker.main.Constants;
 import danogl.GameObject;
@@ -28,47 +30,60 @@ public class PaddleCollisionStrategy extends BasicCollisionStrategy {
     public PaddleCollisionStrategy(BrickerGameManager brickerGameManager, Vector2 paddleDimensions,
                                    float paddleSpeed) {
         super(brickerGameManager);
-        paddle = null; // Initialize the paddle object as null, so the strategy doesn't apply.
         this.paddleDimensions = paddleDimensions;
         this.paddleSpeed = paddleSpeed;
     }
 
     /**
-     * Handles collision by creating a new paddle object if one does not exist already.
+     * Forgets the additional paddle (of a previous game), so the strategy applies again. Called when the
+     * strategies of a new game are set up - not when a strategy is created, since the strategies are created
+     * when their bricks are hit, while the paddle of another brick may still be in the game.
+     */
+    static void resetPaddle() {
+        paddle = null;
+    }
+
+    /**
+     * Handles collision by adding a new paddle object (from the paddles pool) if one does not exist already.
      *
      * @param thisObj   The first colliding object - brick.
      * @param otherObj  The other game object involved in the collision.
      */
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj) {
+    public void onCollision(Brick thisObj, GameObject otherObj) {
         super.onCollision(thisObj, otherObj);
 
         if (paddle == null) {  // if the strategy doesn't apply:
             Renderable paddleImage = brickerGameManager.getController()
-                    .imageReader.readImage(Constants.PADDLE_IMAGE_PATH, true);
-            paddle = new Paddle(
+                    .assets.getImage(AssetRegistry.ImageAsset.PADDLE);
+            paddle = brickerGameManager.getPaddlesPool().acquire(() -> new Paddle(
                     Vector2.ZERO, paddleDimensions, paddleImage,
-                    brickerGameManager.getController().inputListener,
+                    brickerGameManager.getPaddleInput(),
                     brickerGameManager.getLeftRightBordersLimits(),
                     paddleSpeed
-            );
-            paddle.setCenter(brickerGameManager.getController().windowController.getWindowDimensions()
-                    .mult(Constants.CENTER_FACTOR));
+            ));
+            paddle.reset(brickerGameManager.getController().windowController.getWindowDimensions()
+                    .mult(Constants.CENTER_FACTOR), brickerGameManager.getPaddleInput());
             brickerGameManager.addGameObject(paddle);
+            brickerGameManager.activateStrategy(this); // End the strategy on every frame, until removal
         }
     }
 
     /**
      * Ends the collision strategy by removing the paddle if the maximum number of collisions is reached.
+     * When the paddle is removed (and released to the paddles pool), the strategy (the one that created it)
+     * is deactivated.
      */
     @Override
     public void endStrategy() {
         super.endStrategy();
-        if (paddle != null) {
-            if (paddle.getCollisionCounter() >= MAX_COLLISION_NUMBER) {
-                brickerGameManager.removeGameObject(paddle);
-                paddle = null; // Set the paddle object to null after removal, so the strategy doesn't apply.
-            }
+        if (paddle == null) {  // if the paddle was already removed (by a new game):
+            brickerGameManager.deactivateStrategy(this);
+        } else if (paddle.getCollisionCounter() >= MAX_COLLISION_NUMBER) {
+            brickerGameManager.removeGameObject(paddle);
+            brickerGameManager.getPaddlesPool().release(paddle);
+            paddle = null; // Set the paddle object to null after removal, so the strategy doesn't apply.
+            brickerGameManager.deactivateStrategy(this);
         }
     }
 }
@@ -3,6 +3,8 @@ package bricker.brick_strategies;
 /**
  * Enum representing different types of special collision strategies that can occur in the game.
  * Each enum constant represents a specific behavior triggered when a collision occurs with a brick.
+ * The ordinals of the constants (except for the double behavior, which must be the last one) are the
+ * positions of their counts in a strategy code - see CollisionStrategyFactory.
  */
 public enum SpecialCollisionStrategyIndicator {
     /**
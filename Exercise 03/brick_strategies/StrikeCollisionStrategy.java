@@ -1,8 +1,9 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.Brick;
 import bricker.gameobjects.Heart;
+import bricker.main.AssetRegistry;
 import bricker.main.BrickerGameManager;
-import bricker.main.Constants;
 import danogl.GameObject;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
@@ -15,7 +16,7 @@ public class StrikeCollisionStrategy extends BasicCollisionStrategy {
 
     private static final Vector2 HEART_VELOCITY = new Vector2(0, 100);
 
-    private final float heartSize;
+    private final Vector2 heartDimensions;
     private Heart heart;
 
     /**
@@ -26,33 +27,34 @@ public class StrikeCollisionStrategy extends BasicCollisionStrategy {
      */
     public StrikeCollisionStrategy(BrickerGameManager brickerGameManager, float heartSize) {
         super(brickerGameManager);
-        this.heartSize = heartSize;
+        this.heartDimensions = new Vector2(heartSize, heartSize);
     }
 
     /**
-     * Handles the collision event, adding a heart power-up to the game.
+     * Handles the collision event, adding a heart power-up (from the hearts pool) to the game.
      *
      * @param thisObj   The brick object involved in the collision.
      * @param otherObj  The other object involved in the collision.
      */
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj) {
+    public void onCollision(Brick thisObj, GameObject otherObj) {
         super.onCollision(thisObj, otherObj);
 
         // Create a heart power-up to the game:
-        Renderable heartImage = brickerGameManager.getController().imageReader
-                .readImage(Constants.HEART_IMAGE_PATH, true);
-        Vector2 heartDimensions = new Vector2(heartSize, heartSize);
-        heart = new Heart(Vector2.ZERO, heartDimensions, heartImage);
-        heart.setCenter(thisObj.getCenter());
-        heart.setVelocity(HEART_VELOCITY);
+        Renderable heartImage = brickerGameManager.getController().assets
+                .getImage(AssetRegistry.ImageAsset.HEART);
+        heart = brickerGameManager.getHeartsPool().acquire(() ->
+                new Heart(Vector2.ZERO, heartDimensions, heartImage));
+        heart.resetPhaseSpace(HEART_VELOCITY, thisObj.getCenter());
 
         brickerGameManager.addGameObject(heart); // Add the heart power-up to the game
+        brickerGameManager.activateStrategy(this); // End the strategy on every frame, until the heart is gone
     }
 
     /**
      * Cleans up the collision strategy after the brick is blasted - that is removing the heart if it is
      * collided with the main paddle, or if it is out of window. If collided, add new strike to the game.
+     * When the heart is removed, the strategy is deactivated.
      */
     @Override
     public void endStrategy() {
@@ -65,9 +67,11 @@ public class StrikeCollisionStrategy extends BasicCollisionStrategy {
                     // Add a strike if the heart was collected
                     brickerGameManager.getStrikesManager().addStrike();
                 }
-                // Remove the heart power-up from the game
+                // Remove the heart power-up from the game, and release it to the hearts pool
                 brickerGameManager.removeGameObject(heart);
+                brickerGameManager.getHeartsPool().release(heart);
                 heart = null;
+                brickerGameManager.deactivateStrategy(this);
             }
         }
     }
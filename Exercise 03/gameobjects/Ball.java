@@ -12,7 +12,7 @@ import danogl.util.Vector2;
  */
 public class Ball extends GameObject {
 
-    private final Sound collisionSound; // Sound to be played upon collision
+    private final Sound collisionSound; // Sound to be played upon collision, null for a silent ball
     private final Counter collisionCounter; // Counter to track collision occurrences
 
     /**
@@ -22,7 +22,8 @@ public class Ball extends GameObject {
      *                      Note that (0,0) is the top-left corner of the window.
      * @param dimensions    Width and height of the ball in window coordinates.
      * @param renderable    The visual representation of the ball.
-     * @param collisionSound The sound to be played upon collision with other objects.
+     * @param collisionSound The sound to be played upon collision with other objects. Can be null, in which
+     *                       case the ball is silent.
      */
     public Ball(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
                 Sound collisionSound) {
@@ -42,7 +43,31 @@ public class Ball extends GameObject {
         super.onCollisionEnter(other, collision);
         // Flip the ball's velocity based on collision normal
         setVelocity(getVelocity().flipped(collision.getNormal()));
-        collisionSound.play();
+        countCollision();
+    }
+
+    /**
+     * Bounces the ball off a surface whose collision was detected outside danogl (by the brick field).
+     * Flips the ball's velocity by the surface's normal, unless the ball already moves away from it, and
+     * counts the collision as onCollisionEnter does.
+     *
+     * @param normal The normal of the surface, pointing out of it.
+     */
+    public void bounce(Vector2 normal) {
+        Vector2 velocity = getVelocity();
+        if (velocity.x() * normal.x() + velocity.y() * normal.y() < 0) { // if moving into the surface
+            setVelocity(velocity.flipped(normal));
+        }
+        countCollision();
+    }
+
+    /*
+     * Plays the collision sound (if any) and increments the collision counter.
+     */
+    private void countCollision() {
+        if (collisionSound != null) {
+            collisionSound.play();
+        }
         collisionCounter.increment();
     }
 
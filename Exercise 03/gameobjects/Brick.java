@@ -1,53 +1,41 @@
 package bricker.gameobjects;
 
-import bricker.brick_strategies.CollisionStrategy;
 import danogl.GameObject;
-import danogl.collisions.Collision;
-import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
 
 /**
- * Represents a brick object in the Bricker game.
- * Inherits from GameObject class and implements collision handling functionality.
+ * Represents a brick of the BrickField that was hit in the Bricker game.
+ * Inherits from GameObject class, so the collision strategies can treat it as any other object, but it is
+ * never added to the game - the bricks themselves are drawn and collided by their field. A brick is created
+ * only when it is hit, and its collision strategy blasts it.
  */
 public class Brick extends GameObject {
 
-    private final CollisionStrategy collisionStrategy; // Strategy to handle collisions with this brick
+    private final BrickField brickField; // The field of the brick
+    private final int index; // The index of the brick's cell in the field
 
     /**
      * Constructs a new Brick object.
      *
-     * @param topLeftCorner   Position of the top-left corner of the brick, in window coordinates (pixels).
-     *                        Note that (0,0) is the top-left corner of the window.
-     * @param dimensions      Width and height of the brick in window coordinates.
-     * @param renderable      The renderable representing the brick.
-     * @param collisionStrategy The collision strategy to be used when this brick collides with other objects.
+     * @param brickField    The field of the brick.
+     * @param index         The index of the brick's cell in the field.
+     * @param topLeftCorner Position of the top-left corner of the brick, in window coordinates (pixels).
+     *                      Note that (0,0) is the top-left corner of the window.
+     * @param dimensions    Width and height of the brick in window coordinates.
      */
-    public Brick(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                 CollisionStrategy collisionStrategy) {
-        super(topLeftCorner, dimensions, renderable);
-        this.collisionStrategy = collisionStrategy;
+    Brick(BrickField brickField, int index, Vector2 topLeftCorner, Vector2 dimensions) {
+        super(topLeftCorner, dimensions, null);
+        this.brickField = brickField;
+        this.index = index;
     }
 
     /**
-     * Called when a collision occurs with this brick.
-     * Delegates the collision handling to the assigned collision strategy.
+     * Blasts the brick - removes it from its field, so it is no longer drawn or collided.
      *
-     * @param other     The other GameObject involved in the collision.
-     * @param collision Details of the collision.
+     * @return True if the brick was blasted now, false if it was already blasted.
      */
-    @Override
-    public void onCollisionEnter(GameObject other, Collision collision) {
-        collisionStrategy.onCollision(this, other);
-    }
-
-    /**
-     * Retrieves the collision strategy assigned to this brick.
-     *
-     * @return The collision strategy.
-     */
-    public CollisionStrategy getCollisionStrategy() {
-        return collisionStrategy;
+    public boolean blast() {
+        return brickField.blast(index);
     }
 }
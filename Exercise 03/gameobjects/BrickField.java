@@ -0,0 +1,331 @@
+package bricker.gameobjects;
+
+import bricker.brick_strategies.CollisionStrategyFactory;
+import bricker.main.Constants;
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Represents the whole table of bricks in the Bricker game, as a single GameObject.
+ * The bricks sit on a regular grid, so a brick is only a cell of the grid: its position is implied by the
+ * cell, and its strategy code and hit points are kept in primitive arrays (by the cell index), with a BitSet
+ * of the alive bricks. A table of 100k bricks therefore takes a few hundred KB, and not 100k GameObjects.
+ * <p>
+ * The field draws all the alive bricks in a single batched pass, and detects the collisions of the balls
+ * with the bricks by a uniform-grid broadphase: the swept box of a ball - from its position in the previous
+ * frame to its current one - is mapped directly to the few cells it covers, and only the alive bricks in
+ * these cells are tested, by the ball's actual path (a slab test of the moving ball against the brick), so
+ * a diagonal ball doesn't hit the bricks that only the corners of its swept box reach. The cost of a frame
+ * scales with the number of balls, not with the number of bricks. The field should be in a layer that
+ * doesn't collide with the balls in danogl.
+ */
+public class BrickField extends GameObject {
+
+    private final float originX, originY;  // the top-left corner of the first cell
+    private final float strideX, strideY;  // the distance between the corners of adjacent cells
+    private final Vector2 brickDimensions;
+    private final int numberOfRows, numberOfBricksInRow;
+    private final CollisionStrategyFactory collisionStrategyFactory;
+
+    /* Bricks' arrays, by cell index (row * numberOfBricksInRow + col): */
+    private final byte[] strategyCodes;
+    private final byte[] hitPoints;  // the hits left until the brick is blasted
+    private final BitSet alive;
+
+    private int numberOfBricks = 0;
+    private long candidatesCount = 0;  // number of narrowphase tests, for profiling
+    private final float[] slabTimes = new float[2 * Constants.TWO];  // enter and exit times, by axis
+
+    /**
+     * Constructs an empty field.
+     *
+     * @param topLeftCorner            The top-left corner of the brick in the first row and column.
+     * @param brickDimensions          The dimensions of a brick.
+     * @param spaceBetweenBricks       The space between adjacent bricks.
+     * @param numberOfRows             The number of rows.
+     * @param numberOfBricksInRow      The number of bricks in a row.
+     * @param brickImage               The renderable of a brick. Can be null, in which case the bricks will
+     *                                 not be rendered.
+     * @param collisionStrategyFactory The factory of the strategy codes.
+     */
+    public BrickField(Vector2 topLeftCorner, Vector2 brickDimensions, float spaceBetweenBricks,
+                      int numberOfRows, int numberOfBricksInRow, Renderable brickImage,
+                      CollisionStrategyFactory collisionStrategyFactory) {
+        super(topLeftCorner, new Vector2(
+                numberOfBricksInRow * (brickDimensions.x() + spaceBetweenBricks) - spaceBetweenBricks,
+                numberOfRows * (brickDimensions.y() + spaceBetweenBricks) - spaceBetweenBricks
+        ), null);
+        this.originX = topLeftCorner.x();
+        this.originY = topLeftCorner.y();
+        this.brickDimensions = brickDimensions;
+        this.strideX = brickDimensions.x() + spaceBetweenBricks;
+        this.strideY = brickDimensions.y() + spaceBetweenBricks;
+        this.numberOfRows = numberOfRows;
+        this.numberOfBricksInRow = numberOfBricksInRow;
+        this.collisionStrategyFactory = collisionStrategyFactory;
+        this.strategyCodes = new byte[numberOfRows * numberOfBricksInRow];
+        this.hitPoints = new byte[strategyCodes.length];
+        this.alive = new BitSet(strategyCodes.length);
+        if (brickImage != null) {
+            renderer().setRenderable(new BatchedBricksRenderable(brickImage));
+        }
+    }
+
+    /**
+     * Places an alive brick in a cell of the field.
+     *
+     * @param row          The row of the cell.
+     * @param col          The column of the cell.
+     * @param strategyCode The code of the brick's collision strategy.
+     * @param hitPoints    The number of hits (at least 1) that blast the brick.
+     */
+    public void setBrick(int row, int col, byte strategyCode, int hitPoints) {
+        int index = row * numberOfBricksInRow + col;
+        if (!alive.get(index)) {
+            numberOfBricks++;
+        }
+        strategyCodes[index] = strategyCode;
+        this.hitPoints[index] = (byte) hitPoints;
+        alive.set(index);
+    }
+
+    /**
+     * Retrieves the number of rows of the field.
+     *
+     * @return The number of rows.
+     */
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Retrieves the number of bricks in a row of the field.
+     *
+     * @return The number of bricks in a row.
+     */
+    public int getNumberOfBricksInRow() {
+        return numberOfBricksInRow;
+    }
+
+    /**
+     * Checks whether there's an alive brick in a cell of the field.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return True if the cell has a brick that was not blasted yet, false otherwise.
+     */
+    public boolean isAlive(int row, int col) {
+        return alive.get(row * numberOfBricksInRow + col);
+    }
+
+    /**
+     * Retrieves the strategy code of the brick in a cell of the field.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The code of the brick's collision strategy.
+     */
+    public byte getStrategyCode(int row, int col) {
+        return strategyCodes[row * numberOfBricksInRow + col];
+    }
+
+    /**
+     * Retrieves the hit points left of the brick in a cell of the field.
+     *
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The number of hits left until the brick is blasted.
+     */
+    public int getHitPoints(int row, int col) {
+        return hitPoints[row * numberOfBricksInRow + col];
+    }
+
+    /**
+     * Retrieves the number of bricks that were placed in the field.
+     *
+     * @return The number of bricks.
+     */
+    public int getNumberOfBricks() {
+        return numberOfBricks;
+    }
+
+    /**
+     * Retrieves the number of bricks that were not blasted yet.
+     *
+     * @return The number of alive bricks.
+     */
+    public int getAliveCount() {
+        return alive.cardinality();
+    }
+
+    /**
+     * Retrieves the number of ball-brick pairs that were tested so far (after the broadphase).
+     *
+     * @return The number of narrowphase tests.
+     */
+    public long getCandidatesCount() {
+        return candidatesCount;
+    }
+
+    /**
+     * Detects and handles the collisions of the given balls with the bricks, after the balls moved in a
+     * frame. A hit brick loses a hit point, and the ball bounces off it (once per frame, by the brick it hit
+     * first on its path). A brick that has no hit points left is blasted by its collision strategy.
+     * Balls that are added by the strategies are tested from the next frame on.
+     *
+     * @param balls     The balls to test.
+     * @param deltaTime The time elapsed in the frame.
+     */
+    public void collide(List<Ball> balls, float deltaTime) {
+        int numberOfBalls = balls.size();
+        for (int i = 0; i < numberOfBalls; i++) {
+            collide(balls.get(i), deltaTime);
+        }
+    }
+
+    /*
+     * Blasts the brick of the given index, if it's alive. Called by the brick's collision strategy.
+     *
+     * @return True if the brick was alive, false otherwise.
+     */
+    boolean blast(int index) {
+        if (!alive.get(index)) {
+            return false;
+        }
+        alive.clear(index);
+        return true;
+    }
+
+    /*
+     * Detects and handles the collisions of a single ball, by its swept box in the frame.
+     */
+    private void collide(Ball ball, float deltaTime) {
+        Vector2 topLeftCorner = ball.getTopLeftCorner();
+        Vector2 dimensions = ball.getDimensions();
+        Vector2 velocity = ball.getVelocity();
+        float curX = topLeftCorner.x(), curY = topLeftCorner.y();
+        float prevX = curX - velocity.x() * deltaTime, prevY = curY - velocity.y() * deltaTime;
+        float minX = Math.min(curX, prevX), maxX = Math.max(curX, prevX) + dimensions.x();
+        float minY = Math.min(curY, prevY), maxY = Math.max(curY, prevY) + dimensions.y();
+        float halfWidth = dimensions.x() / Constants.TWO, halfHeight = dimensions.y() / Constants.TWO;
+        float moveX = curX - prevX, moveY = curY - prevY;
+
+        int firstCol = Math.max(0, (int) Math.floor((minX - originX) / strideX));
+        int lastCol = Math.min(numberOfBricksInRow - 1, (int) Math.floor((maxX - originX) / strideX));
+        int firstRow = Math.max(0, (int) Math.floor((minY - originY) / strideY));
+        int lastRow = Math.min(numberOfRows - 1, (int) Math.floor((maxY - originY) / strideY));
+
+        Vector2 normal = null;
+        float firstHitTime = Float.POSITIVE_INFINITY;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int index = row * numberOfBricksInRow + col;
+                if (!alive.get(index)) {
+                    continue;
+                }
+                candidatesCount++;
+                float brickX = originX + col * strideX, brickY = originY + row * strideY;
+                // The ball's center moves on a segment, and it hits the brick if the segment crosses the
+                // brick grown by half the ball on every side:
+                calcSlabTimes(prevX + halfWidth, moveX, brickX - halfWidth,
+                        brickX + brickDimensions.x() + halfWidth, 0);
+                calcSlabTimes(prevY + halfHeight, moveY, brickY - halfHeight,
+                        brickY + brickDimensions.y() + halfHeight, Constants.TWO);
+                float enterTime = Math.max(slabTimes[0], slabTimes[Constants.TWO]);
+                float exitTime = Math.min(slabTimes[1], slabTimes[Constants.TWO + 1]);
+                if (!(enterTime < exitTime && enterTime < 1 && exitTime > 0)) {
+                    continue;  // the ball's path doesn't reach the brick (or only touches it)
+                }
+                Vector2 brickNormal = (enterTime >= 0) ?
+                        ((slabTimes[0] > slabTimes[Constants.TWO]) ?
+                                ((moveX > 0) ? Vector2.LEFT : Vector2.RIGHT) :
+                                ((moveY > 0) ? Vector2.UP : Vector2.DOWN)) :
+                        calcNormal(prevX, prevY, dimensions, brickX, brickY);
+                if (enterTime < 0 && moveX * brickNormal.x() + moveY * brickNormal.y() >= 0) {
+                    continue;  // the ball already overlaps the brick, and leaves it (after bouncing off it)
+                }
+                if (enterTime < firstHitTime) {
+                    firstHitTime = enterTime;
+                    normal = brickNormal;
+                }
+                if (--hitPoints[index] <= 0) {
+                    Brick brick = new Brick(this, index, new Vector2(brickX, brickY), brickDimensions);
+                    collisionStrategyFactory.createStrategy(strategyCodes[index]).onCollision(brick, ball);
+                }
+            }
+        }
+        if (normal != null) {
+            ball.bounce(normal);
+        }
+    }
+
+    /*
+     * Calculates the times (as fractions of the frame's move) in which a moving point enters and exits the
+     * slab between two bounds, on a single axis, into slabTimes from the given offset. A point that doesn't
+     * move on the axis is in the slab always (strictly inside it) or never.
+     */
+    private void calcSlabTimes(float start, float move, float low, float high, int offset) {
+        if (move == 0) {
+            boolean inside = low < start && start < high;
+            slabTimes[offset] = inside ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+            slabTimes[offset + 1] = inside ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
+            return;
+        }
+        float lowTime = (low - start) / move, highTime = (high - start) / move;
+        slabTimes[offset] = Math.min(lowTime, highTime);
+        slabTimes[offset + 1] = Math.max(lowTime, highTime);
+    }
+
+    /*
+     * Calculates the normal of the side of a brick that a ball already overlapped before the frame, by the
+     * axis on which they overlapped the least: the ball is in the brick by the side it is nearest to.
+     */
+    private Vector2 calcNormal(float prevX, float prevY, Vector2 dimensions, float brickX, float brickY) {
+        float overlapX = Math.min(prevX + dimensions.x(), brickX + brickDimensions.x()) -
+                Math.max(prevX, brickX);
+        float overlapY = Math.min(prevY + dimensions.y(), brickY + brickDimensions.y()) -
+                Math.max(prevY, brickY);
+        if (overlapX < overlapY) {
+            float prevCenterX = prevX + dimensions.x() / 2;
+            return (prevCenterX < brickX + brickDimensions.x() / 2) ? Vector2.LEFT : Vector2.RIGHT;
+        }
+        float prevCenterY = prevY + dimensions.y() / 2;
+        return (prevCenterY < brickY + brickDimensions.y() / 2) ? Vector2.UP : Vector2.DOWN;
+    }
+
+    /*
+     * Draws all the alive bricks of the field in a single pass, by the same brick image: the graphics are
+     * transformed once from the field's coordinates to the drawn ones (which danogl calculates for the
+     * whole field, by the camera), and then only translated from a brick to the next.
+     */
+    private class BatchedBricksRenderable implements Renderable {
+        private final Renderable brickImage;
+
+        BatchedBricksRenderable(Renderable brickImage) {
+            this.brickImage = brickImage;
+        }
+
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            AffineTransform transform = g.getTransform();
+            g.translate(topLeftCorner.x(), topLeftCorner.y());
+            g.scale(dimensions.x() / getDimensions().x(), dimensions.y() / getDimensions().y());
+            for (int index = alive.nextSetBit(0); index >= 0; index = alive.nextSetBit(index + 1)) {
+                double brickX = (index % numberOfBricksInRow) * strideX;
+                double brickY = (index / numberOfBricksInRow) * strideY;
+                g.translate(brickX, brickY);
+                brickImage.render(g, Vector2.ZERO, brickDimensions, 0, false, false, opaqueness);
+                g.translate(-brickX, -brickY);
+            }
+            g.setTransform(transform);
+        }
+    }
+}
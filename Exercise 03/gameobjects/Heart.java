@@ -53,6 +53,18 @@ public class Heart extends GameObject {
         // Allow collision only with the main paddle
     }
 
+    /**
+     * Resets the heart's position and velocity, and marks it as not collided, so it can be reused.
+     *
+     * @param velocity The new velocity of the heart.
+     * @param center   The new position of the center of the heart.
+     */
+    public void resetPhaseSpace(Vector2 velocity, Vector2 center) {
+        setVelocity(velocity);
+        setCenter(center);
+        collided = false;
+    }
+
     /**
      * Checks if the heart has collided with another object.
      *
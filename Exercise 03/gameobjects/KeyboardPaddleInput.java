@@ -0,0 +1,40 @@
+package bricker.gameobjects;
+
+import danogl.gui.UserInputListener;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * The player's input of a paddle: the paddle moves by the left and right arrow keys.
+ */
+public class KeyboardPaddleInput implements PaddleInput {
+
+    private final UserInputListener inputListener; // Listener for user input
+
+    /**
+     * Constructs a new KeyboardPaddleInput.
+     *
+     * @param inputListener Listener for user input events.
+     */
+    public KeyboardPaddleInput(UserInputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    /**
+     * Retrieves the direction in which the paddle should move, by the pressed arrow keys.
+     *
+     * @param paddle The paddle to move.
+     * @return -1 if only the left arrow key is pressed, 1 if only the right one is, and 0 otherwise.
+     */
+    @Override
+    public int getMovementDirection(Paddle paddle) {
+        int movementDir = 0; // Initialize the movement direction
+        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) { // Check if the left arrow key is pressed
+            movementDir--; // Move the paddle left
+        }
+        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) { // Check if the right arrow key is pressed
+            movementDir++; // Move the paddle right
+        }
+        return movementDir;
+    }
+}
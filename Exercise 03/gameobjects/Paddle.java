@@ -3,21 +3,18 @@ package bricker.gameobjects;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 
-import java.awt.event.KeyEvent;
-
 /**
  * Represents a paddle object in the Bricker game.
- * Inherits from GameObject class and handles user input for paddle movement.
+ * Inherits from GameObject class and moves by its input - the player's, or an automated player's.
  */
 public class Paddle extends GameObject {
 
     private final float speed; // Speed of the paddle movement
-    private final UserInputListener inputListener; // Listener for user input
+    private PaddleInput input; // The source of the paddle's movement
     private final float leftBorder, rightBorder; // Left and right borders of the paddle movement area
     private final Vector2 dimensions; // Dimensions of the paddle
     private final Counter collisionCounter = new Counter(); // Counter for collision occurrences
@@ -30,36 +27,30 @@ public class Paddle extends GameObject {
      * @param dimensions      Width and height of the paddle in window coordinates.
      * @param renderable      The renderable representing the paddle. Can be null, in which case
      *                        the paddle will not be rendered.
-     * @param inputListener   Listener for user input events.
+     * @param input           The source of the paddle's movement.
      * @param borders         An array containing the left and right borders of the paddle movement area.
      * @param speed           Speed of the paddle movement.
      */
     public Paddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                  UserInputListener inputListener, float[] borders, float speed) {
+                  PaddleInput input, float[] borders, float speed) {
         super(topLeftCorner, dimensions, renderable); // Call the constructor of the parent class (GameObject)
         this.speed = speed; // Assign the provided speed
         this.dimensions = dimensions; // Assign the provided dimensions
-        this.inputListener = inputListener; // Assign the provided input listener
+        this.input = input; // Assign the provided input source
         this.leftBorder = borders[0]; // Assign the left border
         this.rightBorder = borders[1]; // Assign the right border
     }
 
     /**
-     * Updates the paddle's position based on user input and ensures it stays within the specified borders.
+     * Updates the paddle's position based on its input and ensures it stays within the specified borders.
      *
      * @param deltaTime Time elapsed since the last update.
      */
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime); // Call the parent update method
-        Vector2 movementDir = Vector2.ZERO; // Initialize the movement direction vector
-        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) { // Check if the left arrow key is pressed
-            movementDir = movementDir.add(Vector2.LEFT); // Move the paddle left
-        }
-        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) { // Check if the right arrow key is pressed
-            movementDir = movementDir.add(Vector2.RIGHT); // Move the paddle right
-        }
-        setVelocity(movementDir.mult(speed)); // Set the velocity based on the movement direction and speed
+        int movementDir = input.getMovementDirection(this); // Get the movement direction from the input
+        setVelocity(Vector2.RIGHT.mult(Math.signum(movementDir) * speed)); // Set the velocity accordingly
 
         Vector2 topLeftCorner = getTopLeftCorner(); // Get the current top-left corner of the paddle
         if (topLeftCorner.x() <= leftBorder) { // If the paddle reaches or exceeds the left border
@@ -83,6 +74,19 @@ public class Paddle extends GameObject {
         collisionCounter.increment(); // Increment the collision counter
     }
 
+    /**
+     * Resets the paddle's position, input and collision counter, so it can be reused (in another game).
+     *
+     * @param center The new position of the center of the paddle.
+     * @param input  The source of the paddle's movement.
+     */
+    public void reset(Vector2 center, PaddleInput input) {
+        this.input = input;
+        setVelocity(Vector2.ZERO);
+        setCenter(center);
+        collisionCounter.reset();
+    }
+
     /**
      * Retrieves the current value of the collision counter.
      *
@@ -0,0 +1,15 @@
+package bricker.gameobjects;
+
+/**
+ * A source of input that moves a paddle in the Bricker game - the player's keyboard, or an automated player.
+ */
+public interface PaddleInput {
+
+    /**
+     * Retrieves the direction in which the paddle should move in the current frame.
+     *
+     * @param paddle The paddle to move.
+     * @return A negative number to move left, a positive number to move right, or 0 to stay.
+     */
+    int getMovementDirection(Paddle paddle);
+}
@@ -0,0 +1,144 @@
+package bricker.main;
+
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.rendering.Renderable;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A registry of all the assets of the game, loaded once when the game is initialized, that hands out shared
+ * instances of them. The collision strategies create their objects on the gameplay path, so they take their
+ * images and sounds from here, and no file is read or decoded in the middle of a game.
+ */
+public class AssetRegistry {
+
+    /**
+     * The image assets of the game.
+     */
+    public enum ImageAsset {
+        /**
+         * The background image.
+         */
+        BACKGROUND(Constants.BACKGROUND_IMAGE_PATH, false),
+
+        /**
+         * The borders image, if any.
+         */
+        BORDER(Constants.BORDER_IMAGE_PATH, false),
+
+        /**
+         * The ball image.
+         */
+        BALL(Constants.BALL_IMAGE_PATH, true),
+
+        /**
+         * The paddle image.
+         */
+        PADDLE(Constants.PADDLE_IMAGE_PATH, true),
+
+        /**
+         * The brick image.
+         */
+        BRICK(Constants.BRICK_IMAGE_PATH, false),
+
+        /**
+         * The puck image.
+         */
+        PUCK(Constants.PUCK_IMAGE_PATH, true),
+
+        /**
+         * The heart image.
+         */
+        HEART(Constants.HEART_IMAGE_PATH, true);
+
+        private final String path;
+        private final boolean isTopLeftPixelTransparent;
+
+        ImageAsset(String path, boolean isTopLeftPixelTransparent) {
+            this.path = path;
+            this.isTopLeftPixelTransparent = isTopLeftPixelTransparent;
+        }
+    }
+
+    /**
+     * The sound assets of the game.
+     */
+    public enum SoundAsset {
+        /**
+         * The sound of a ball's collision.
+         */
+        BALL_COLLISION(Constants.BALL_COLLISION_SOUND_PATH);
+
+        private final String path;
+
+        SoundAsset(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final Map<ImageAsset, Renderable> images = new EnumMap<>(ImageAsset.class);
+    private final Map<SoundAsset, Sound> sounds = new EnumMap<>(SoundAsset.class);
+    private final long loadNanos;
+
+    /**
+     * Constructs the registry, and loads all the assets.
+     *
+     * @param imageReader The ImageReader to read the images with.
+     * @param soundReader The SoundReader to read the sounds with.
+     */
+    public AssetRegistry(ImageReader imageReader, SoundReader soundReader) {
+        long start = System.nanoTime();
+        for (ImageAsset asset : ImageAsset.values()) {
+            // An asset without a path (as the borders) is not rendered:
+            images.put(asset, asset.path.isEmpty() ? null :
+                    imageReader.readImage(asset.path, asset.isTopLeftPixelTransparent));
+        }
+        for (SoundAsset asset : SoundAsset.values()) {
+            sounds.put(asset, soundReader.readSound(asset.path));
+        }
+        loadNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Retrieves a loaded image.
+     *
+     * @param asset The image asset.
+     * @return The shared renderable of the image (null if it has no path).
+     */
+    public Renderable getImage(ImageAsset asset) {
+        return images.get(asset);
+    }
+
+    /**
+     * Retrieves a loaded sound.
+     *
+     * @param asset The sound asset.
+     * @return The shared sound.
+     */
+    public Sound getSound(SoundAsset asset) {
+        return sounds.get(asset);
+    }
+
+    /**
+     * Retrieves the number of assets in the registry.
+     *
+     * @return The number of images and sounds.
+     */
+    public int getAssetsCount() {
+        return images.size() + sounds.size();
+    }
+
+    /**
+     * Retrieves the time it took to load the assets.
+     *
+     * @return The load time, in milliseconds.
+     */
+    public double getLoadMillis() {
+        return loadNanos / NANOS_PER_MILLI;
+    }
+}
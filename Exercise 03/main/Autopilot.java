@@ -0,0 +1,108 @@
+package bricker.main;
+
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Paddle;
+import bricker.gameobjects.PaddleInput;
+import danogl.util.Vector2;
+
+import java.util.List;
+
+/**
+ * An automated player of the Bricker game, for unattended (headless) runs: moves a paddle to intercept the
+ * ball or puck that will reach it first.
+ * The landing point of every ball is predicted analytically, without simulating its flight: the time it
+ * takes to reach the paddle's height (after bouncing off the upper border, if it's moving up), and where it
+ * is by then - the side borders reflect it, so its horizontal path is folded into the space between them.
+ * The bricks are not taken into account, so a prediction may change when a ball hits one.
+ */
+public class Autopilot implements PaddleInput {
+
+    /* Movement Constants: */
+    private static final float DEAD_ZONE_FACTOR = 0.25f;  // of the paddle's width, to avoid jittering
+
+    private final BrickerGameManager brickerGameManager;
+
+    /**
+     * Constructs an Autopilot of the paddles of a game.
+     *
+     * @param brickerGameManager The game to play.
+     */
+    public Autopilot(BrickerGameManager brickerGameManager) {
+        this.brickerGameManager = brickerGameManager;
+    }
+
+    /**
+     * Retrieves the direction in which the paddle should move: toward the predicted landing point of the
+     * ball that will reach it first, or toward the main ball if no ball is coming.
+     *
+     * @param paddle The paddle to move.
+     * @return -1 to move left, 1 to move right, or 0 if the paddle is already below the target.
+     */
+    @Override
+    public int getMovementDirection(Paddle paddle) {
+        float paddleTop = paddle.getTopLeftCorner().y();
+        float targetX = Float.NaN;
+        float firstLandingTime = Float.POSITIVE_INFINITY;
+        float[] borders = brickerGameManager.getLeftRightBordersLimits();
+        List<Ball> balls = brickerGameManager.getBalls();
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            float landingTime = calcLandingTime(ball, paddleTop);
+            if (landingTime < firstLandingTime) {
+                firstLandingTime = landingTime;
+                targetX = calcLandingX(ball, landingTime, borders);
+            }
+        }
+        if (Float.isNaN(targetX)) {  // no ball is coming:
+            Ball ball = brickerGameManager.getBall();
+            if (ball == null) {
+                return 0;
+            }
+            targetX = ball.getCenter().x();
+        }
+        float distance = targetX - paddle.getCenter().x();
+        if (Math.abs(distance) <= paddle.getDimensions().x() * DEAD_ZONE_FACTOR) {
+            return 0;
+        }
+        return (distance < 0) ? -1 : 1;
+    }
+
+    /*
+     * Calculates the time until a ball reaches the given height (its bottom, by the upper border if it's
+     * moving up).
+     *
+     * @return The time, or infinity if the ball is already below the height or doesn't move vertically.
+     */
+    private float calcLandingTime(Ball ball, float paddleTop) {
+        float halfHeight = ball.getDimensions().y() / Constants.TWO;
+        float centerY = ball.getCenter().y();
+        float velocityY = ball.getVelocity().y();
+        float landingCenterY = paddleTop - halfHeight;
+        if (velocityY > 0) {
+            return (centerY <= landingCenterY) ? (landingCenterY - centerY) / velocityY :
+                    Float.POSITIVE_INFINITY;
+        }
+        if (velocityY < 0) {
+            float ceilingCenterY = brickerGameManager.getUpperBorderLimit() + halfHeight;
+            return ((centerY - ceilingCenterY) + (landingCenterY - ceilingCenterY)) / -velocityY;
+        }
+        return Float.POSITIVE_INFINITY;
+    }
+
+    /*
+     * Calculates where a ball's center will be horizontally after the given time, reflected by the side
+     * borders: its straight path is folded into the range of its center between the borders.
+     */
+    private static float calcLandingX(Ball ball, float landingTime, float[] borders) {
+        Vector2 center = ball.getCenter();
+        float halfWidth = ball.getDimensions().x() / Constants.TWO;
+        float minX = borders[0] + halfWidth;
+        float range = borders[1] - halfWidth - minX;
+        if (range <= 0) {
+            return minX;
+        }
+        double position = center.x() + ball.getVelocity().x() * landingTime - minX;
+        double folded = position - Constants.TWO * range * Math.floor(position / (Constants.TWO * range));
+        return (float) (minX + ((folded > range) ? Constants.TWO * range - folded : folded));
+    }
+}
@@ -1,5 +1,6 @@
 package bricker.main;
 
+import bricker.brick_strategies.CollisionStrategy;
 import bricker.brick_strategies.CollisionStrategyFactory;
 import bricker.gameobjects.*;
 import danogl.GameManager;
@@ -12,6 +13,13 @@ import danogl.util.Counter;
 import danogl.util.Vector2;
 
 import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.Random;
 
 /**
@@ -24,9 +32,29 @@ public class BrickerGameManager extends GameManager {
     private static final String LOSE_MSG = "You lose! Play again?";
     private static final String WIN_MSG = "You win! Play again?";
 
+    /* Report Messages: */
+    private static final String ASSETS_LOADED_FORMAT = "Loaded %d assets in %.1f ms%n";
+    private static final String RECORDING_FORMAT = "Recording the input to %s (seed %d)%n";
+    private static final String RECORDING_ERROR_MSG = "Input recording failed: ";
+    private static final String LEVEL_ERROR_MSG = "Level loading failed: ";
+    private static final String LEVEL_RECORDING_MSG =
+            "A game on a level can't be recorded: the recordings replay random bricks only";
+    static final String LEVEL_PREFIX = "level:";
+    private static final String PROFILE_FLAG = "-profile";
+
+    /* Profiling Constants: */
+    static final int PROFILER_WINDOW_FRAMES = 600;  // 10 seconds, at 60 frames per second
+    private static final int[] PROFILED_LAYERS = {Layer.BACKGROUND, Layer.STATIC_OBJECTS,
+            Constants.BRICKS_LAYER, Layer.DEFAULT, Layer.FOREGROUND, Layer.UI};
+    private static final String[] PROFILED_LAYERS_NAMES = {"background", "static", "bricks", "default",
+            "foreground", "UI"};
+    private static final String OBJECTS_PER_LAYER_MSG = "objects per layer:";
+    private static final String LAYER_COUNT_FORMAT = " %s %d";
+
     /* Window Constants: */
     private static final String WINDOW_TITLE = "Bricker";
     private static final int WINDOW_WIDTH = 700, WINDOW_HEIGHT = 500;
+    static final Vector2 WINDOW_DIMENSIONS = new Vector2(WINDOW_WIDTH, WINDOW_HEIGHT);
 
     /* Border Constants: */
     private static final int BORDER_WIDTH = 10;
@@ -45,12 +73,30 @@ public class BrickerGameManager extends GameManager {
     private static final int NUMBER_OF_ROWS = 7;
     private static final int NUMBER_OF_BRICKS_IN_ROW = 8;
 
+    /* Pools Constants: */
+    private static final int PUCKS_POOL_CAPACITY = 256;
+    private static final int HEARTS_POOL_CAPACITY = 32;
+    private static final int PADDLES_POOL_CAPACITY = 1;
+
     /* Strikes Constants: */
     private static final int HEART_SIZE = 25;
     private static final int SPACE_BETWEEN_STRIKES_OBJECTS = 5;
 
     /* Control fields: */
+    private final long seed;
+    private final Random random;  // the only source of randomness in the game, for deterministic replays
+    private float fixedDeltaTime = 0;  // non-positive for the variable time step of the window
+    private float accumulatedTime = 0;  // not yet simulated, in fixed time steps
+    private boolean gameEnded = false;  // until the next game is initialized
+    private InputRecorder inputRecorder = null;
+    private PaddleInput autopilot = null;  // plays instead of the player, if set
+    private PaddleInput paddleInput = null;  // of the current game
+    private LevelFile level = null;  // the layout of the bricks, instead of random bricks, if set
+    private FrameProfiler profiler = null;
+    private boolean showProfilerOverlay = false;
+    private ProfilerOverlay profilerOverlay = null;  // of the current game, if shown
     private Controller controller = null;
+    private AssetRegistry assets = null;  // loaded once, for all the games
     private Vector2 windowDimensions = null;
 
     /* Bricks-related fields: */
@@ -62,17 +108,145 @@ public class BrickerGameManager extends GameManager {
     private Paddle paddle = null;
     private GameObject[] borders = null;
     private GameObject background = null;
-    private Brick[] bricks = null;
+    private BrickField brickField = null;
+    private final List<Ball> balls = new ArrayList<>();  // the main ball and the pucks, for the brickField
     private StrikesManager strikes = null;
 
+    /* Pools fields (kept for all the games): */
+    private final ObjectPool<Ball> pucksPool = new ObjectPool<>(PUCKS_POOL_CAPACITY);
+    private final ObjectPool<Heart> heartsPool = new ObjectPool<>(HEARTS_POOL_CAPACITY);
+    private final ObjectPool<Paddle> paddlesPool = new ObjectPool<>(PADDLES_POOL_CAPACITY);
+
+    /* Strategies fields: */
+    private final Set<CollisionStrategy> activeStrategies = new LinkedHashSet<>();  // in activation order
+    private final List<CollisionStrategy> deactivatedStrategies = new ArrayList<>();  // in this frame
+
     /**
-     * Constructor for BrickerGameManager.
+     * Constructor for BrickerGameManager, with a random seed.
      *
      * @param bricksTableDimensions Vector2 of the dimensions of the bricks table.
      */
     public BrickerGameManager(Vector2 bricksTableDimensions) {
-        super(WINDOW_TITLE, new Vector2(WINDOW_WIDTH, WINDOW_HEIGHT));
+        this(bricksTableDimensions, new Random().nextLong());
+    }
+
+    /**
+     * Constructor for BrickerGameManager, whose randomness is seeded - so games of the same seed, time steps
+     * and input are identical.
+     *
+     * @param bricksTableDimensions Vector2 of the dimensions of the bricks table.
+     * @param seed                  The seed of the game's randomness.
+     */
+    public BrickerGameManager(Vector2 bricksTableDimensions, long seed) {
+        super(WINDOW_TITLE, WINDOW_DIMENSIONS);
         this.bricksTableDimensions = bricksTableDimensions;
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Sets a fixed time step: every update of the window is simulated in as many fixed steps as fit in the
+     * time elapsed (and the rest of the time is left to the next update).
+     *
+     * @param fixedDeltaTime The fixed time step, in seconds, or a non-positive number for the variable time
+     *                       step of the window.
+     */
+    public void setFixedDeltaTime(float fixedDeltaTime) {
+        this.fixedDeltaTime = fixedDeltaTime;
+    }
+
+    /**
+     * Sets a recorder of the game's input. Should be set before the game is initialized, with a fixed time
+     * step, and the game's seed.
+     *
+     * @param inputRecorder The recorder, or null for no recording.
+     */
+    public void setInputRecorder(InputRecorder inputRecorder) {
+        this.inputRecorder = inputRecorder;
+    }
+
+    /**
+     * Sets an automated player, which moves the paddles instead of the player. Should be set before the game
+     * is initialized.
+     *
+     * @param autopilot The input of the paddles, or null for the player's keyboard.
+     */
+    public void setAutopilot(PaddleInput autopilot) {
+        this.autopilot = autopilot;
+    }
+
+    /**
+     * Sets a level - a handcrafted layout of bricks - for the games, instead of a full table of random bricks.
+     * The bricks table dimensions of the game should be the level's.
+     *
+     * @param level The level, or null for random bricks.
+     */
+    public void setLevel(LevelFile level) {
+        this.level = level;
+    }
+
+    /**
+     * Sets a profiler of the game's frames. Should be set before the game is initialized.
+     *
+     * @param profiler    The profiler, or null for no profiling.
+     * @param showOverlay Whether to display the profile over the game.
+     */
+    public void setProfiler(FrameProfiler profiler, boolean showOverlay) {
+        this.profiler = profiler;
+        this.showProfilerOverlay = showOverlay;
+    }
+
+    /**
+     * Retrieves the profiler of the game's frames.
+     *
+     * @return The profiler, or null if the game is not profiled.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Formats the number of live game objects in every layer of the game.
+     *
+     * @return A line of the number of objects by layer.
+     */
+    public String formatObjectsPerLayer() {
+        StringBuilder line = new StringBuilder(OBJECTS_PER_LAYER_MSG);
+        for (int i = 0; i < PROFILED_LAYERS.length; i++) {
+            int count = 0;
+            for (GameObject ignored : gameObjects().objectsInLayer(PROFILED_LAYERS[i])) {
+                count++;
+            }
+            line.append(String.format(LAYER_COUNT_FORMAT, PROFILED_LAYERS_NAMES[i], count));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Retrieves the input that moves the paddles of the current game.
+     *
+     * @return The automated player, if set, or otherwise the player's keyboard.
+     */
+    public PaddleInput getPaddleInput() {
+        return paddleInput;
+    }
+
+    /**
+     * Retrieves the random numbers generator of the game, which all its random choices must use.
+     *
+     * @return The seeded random numbers generator.
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Retrieves the seed of the game's randomness.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
     }
 
     /**
@@ -93,8 +267,12 @@ public class BrickerGameManager extends GameManager {
      * @return True if the game object was successfully removed, false otherwise.
      */
     public boolean removeGameObject(GameObject gameObject) {
+        if (gameObject instanceof Ball) {
+            balls.remove(gameObject);
+        }
         return this.gameObjects().removeGameObject(gameObject);
     }
+
     /**
      * Adds a game object to the game with the specified layer ID.
      *
@@ -111,6 +289,9 @@ public class BrickerGameManager extends GameManager {
      * @param gameObject The game object to add.
      */
     public void addGameObject(GameObject gameObject) {
+        if (gameObject instanceof Ball) {
+            balls.add((Ball) gameObject);
+        }
         this.gameObjects().addGameObject(gameObject);
     }
 
@@ -121,6 +302,35 @@ public class BrickerGameManager extends GameManager {
         bricksCounter.decrement();
     }
 
+    /**
+     * Activates a collision strategy whose collision has a lasting effect: its endStrategy method will be
+     * called on every frame, until it is deactivated.
+     *
+     * @param collisionStrategy The strategy to activate.
+     */
+    public void activateStrategy(CollisionStrategy collisionStrategy) {
+        activeStrategies.add(collisionStrategy);
+    }
+
+    /**
+     * Deactivates a collision strategy whose effect is over. Can be called from its endStrategy method - it
+     * takes effect at the end of the frame's ending of the strategies.
+     *
+     * @param collisionStrategy The strategy to deactivate.
+     */
+    public void deactivateStrategy(CollisionStrategy collisionStrategy) {
+        deactivatedStrategies.add(collisionStrategy);
+    }
+
+    /**
+     * Retrieves the number of active collision strategies.
+     *
+     * @return The number of strategies whose effect is not over.
+     */
+    public int getActiveStrategiesCount() {
+        return activeStrategies.size();
+    }
+
     /**
      * Retrieves the controller associated with the game.
      *
@@ -139,6 +349,42 @@ public class BrickerGameManager extends GameManager {
         return strikes;
     }
 
+    /**
+     * Retrieves the pool of the pucks (the additional balls).
+     *
+     * @return The pucks pool.
+     */
+    public ObjectPool<Ball> getPucksPool() {
+        return pucksPool;
+    }
+
+    /**
+     * Retrieves the pool of the falling hearts.
+     *
+     * @return The hearts pool.
+     */
+    public ObjectPool<Heart> getHeartsPool() {
+        return heartsPool;
+    }
+
+    /**
+     * Retrieves the pool of the additional paddles.
+     *
+     * @return The paddles pool.
+     */
+    public ObjectPool<Paddle> getPaddlesPool() {
+        return paddlesPool;
+    }
+
+    /**
+     * Retrieves the field of the bricks in the game.
+     *
+     * @return The brick field.
+     */
+    public BrickField getBrickField() {
+        return brickField;
+    }
+
     /**
      * Retrieves the main ball object in the game.
      *
@@ -148,6 +394,15 @@ public class BrickerGameManager extends GameManager {
         return ball;
     }
 
+    /*
+     * Retrieves the balls in the game: the main ball and the pucks.
+     *
+     * @return The balls, which should not be modified.
+     */
+    List<Ball> getBalls() {
+        return balls;
+    }
+
     /**
      * Retrieves the upper border width of the game's border.
      *
@@ -171,8 +426,7 @@ public class BrickerGameManager extends GameManager {
      * This method creates a game object representing the background image and adds it to the game.
      */
     private void initializeBackground() {
-        Renderable backgroundImage = controller.imageReader.readImage(Constants.BACKGROUND_IMAGE_PATH,
-                false);
+        Renderable backgroundImage = controller.assets.getImage(AssetRegistry.ImageAsset.BACKGROUND);
         background = new GameObject(Vector2.ZERO, windowDimensions, backgroundImage);
         background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
 
@@ -185,8 +439,7 @@ public class BrickerGameManager extends GameManager {
      * game.
      */
     private void initializeBorders() {
-        Renderable borderImage = (Constants.BORDER_IMAGE_PATH == Constants.EMPTY_STRING) ? null :
-                controller.imageReader.readImage(Constants.BORDER_IMAGE_PATH, false);
+        Renderable borderImage = controller.assets.getImage(AssetRegistry.ImageAsset.BORDER);
 
         GameObject leftBorder = new GameObject(Vector2.ZERO,
                 new Vector2(BORDER_WIDTH, windowDimensions.y()), borderImage);
@@ -210,8 +463,7 @@ public class BrickerGameManager extends GameManager {
      * @return A random velocity component for the ball.
      */
     private float calcRandomBallVelocityComponent() {
-        Random rand = new Random();
-        return rand.nextBoolean() ?
+        return random.nextBoolean() ?
                 BALL_SPEED / Constants.SQRT_TWO :
                 -BALL_SPEED / Constants.SQRT_TWO;
     }
@@ -234,14 +486,13 @@ public class BrickerGameManager extends GameManager {
      * sets its tag, resets its phase space, and adds it to the game objects.
      */
     private void initializeBall() {
-        Renderable ballImage = controller.imageReader.readImage(Constants.BALL_IMAGE_PATH,
-                true);
-        Sound ballCollisionSound = controller.soundReader.readSound(Constants.BALL_COLLISION_SOUND_PATH);
+        Renderable ballImage = controller.assets.getImage(AssetRegistry.ImageAsset.BALL);
+        Sound ballCollisionSound = controller.assets.getSound(AssetRegistry.SoundAsset.BALL_COLLISION);
         ball = new Ball(Vector2.ZERO, new Vector2(BALL_SIZE, BALL_SIZE), ballImage, ballCollisionSound);
         ball.setTag(Constants.MAIN_BALL_TAG);
         resetBallPhaseSpace();
 
-        gameObjects().addGameObject(ball);
+        addGameObject(ball);
     }
 
     /*
@@ -250,11 +501,10 @@ public class BrickerGameManager extends GameManager {
      * sets its center position, tag, and adds it to the game objects.
      */
     private void initializePaddle() {
-        Renderable paddleImage = controller.imageReader.readImage(Constants.PADDLE_IMAGE_PATH,
-                true);
+        Renderable paddleImage = controller.assets.getImage(AssetRegistry.ImageAsset.PADDLE);
         paddle = new Paddle(
                 Vector2.ZERO, PADDLE_DIMENSIONS,
-                paddleImage, controller.inputListener,
+                paddleImage, paddleInput,
                 getLeftRightBordersLimits(),
                 PADDLE_SPEED
         );
@@ -265,36 +515,30 @@ public class BrickerGameManager extends GameManager {
         gameObjects().addGameObject(paddle);
     }
 
-    private Brick[] calcBricksArray(int numberOfRows, int numberOfBricksInRow, float[] leftRightBorders,
-                                    Vector2 brickDimensions, Renderable brickImage,
-                                    CollisionStrategyFactory collisionStrategyFactory) {
-        Brick[] bricksArray = new Brick[numberOfRows * numberOfBricksInRow];
+    /*
+     * Fills the brick field, row by row, with bricks of a single hit point and a random strategy code each.
+     */
+    private void fillBrickField(int numberOfRows, int numberOfBricksInRow,
+                                CollisionStrategyFactory collisionStrategyFactory) {
         for (int row = 0; row < numberOfRows; row++) {
             for (int col = 0; col < numberOfBricksInRow; col++) {
-                Vector2 brickTopLeftCorner = new Vector2(
-                        leftRightBorders[0] + (col + 1) * SPACE_BETWEEN_BRICKS + col * brickDimensions.x(),
-                        getUpperBorderLimit() + (row + 1) * SPACE_BETWEEN_BRICKS + row * brickDimensions.y()
-                );
-                bricksArray[(row * numberOfBricksInRow) + col] = new Brick(
-                        brickTopLeftCorner, brickDimensions, brickImage,
-                        collisionStrategyFactory.selectStrategy(this, false, 0)
-                );
+                brickField.setBrick(row, col, collisionStrategyFactory.selectStrategyCode(), 1);
             }
         }
-        return bricksArray;
     }
 
     /*
      * Initializes the bricks' layout.
      * This method calculates the dimensions and positions of the bricks based on the provided table
-     * dimensions,
-     * creates Brick objects accordingly, adds collision strategies, and adds them to the game objects.
+     * dimensions, creates the brick field accordingly, fills it with the level's bricks (or with random
+     * ones), and adds it to the game objects.
+     * The field is in its own layer, which doesn't collide with the default layer in danogl - the
+     * collisions of the balls with the bricks are detected by the field.
      */
     private void initializeBricks() {
-        CollisionStrategyFactory collisionStrategyFactory = new CollisionStrategyFactory(BALL_SIZE,
+        CollisionStrategyFactory collisionStrategyFactory = new CollisionStrategyFactory(this, BALL_SIZE,
                 BALL_SPEED, PADDLE_DIMENSIONS, PADDLE_SPEED, HEART_SIZE);
-        Renderable brickImage = controller.imageReader.readImage(Constants.BRICK_IMAGE_PATH,
-                false);
+        Renderable brickImage = controller.assets.getImage(AssetRegistry.ImageAsset.BRICK);
         int numberOfBricksInRow = (int) bricksTableDimensions.x();
         int numberOfRows = (int) bricksTableDimensions.y();
         float[] leftRightBorders = getLeftRightBordersLimits();
@@ -303,15 +547,23 @@ public class BrickerGameManager extends GameManager {
                         (numberOfBricksInRow + 1) * SPACE_BETWEEN_BRICKS) / numberOfBricksInRow,
                 BRICK_HEIGHT
         );
-        bricks = calcBricksArray(numberOfRows, numberOfBricksInRow, leftRightBorders, brickDimensions,
-                brickImage, collisionStrategyFactory);
+        brickField = new BrickField(
+                new Vector2(leftRightBorders[0] + SPACE_BETWEEN_BRICKS,
+                        getUpperBorderLimit() + SPACE_BETWEEN_BRICKS),
+                brickDimensions, SPACE_BETWEEN_BRICKS, numberOfRows, numberOfBricksInRow,
+                brickImage, collisionStrategyFactory
+        );
+        if (level != null) {
+            level.loadInto(brickField);
+        } else {
+            fillBrickField(numberOfRows, numberOfBricksInRow, collisionStrategyFactory);
+        }
 
         bricksCounter.reset();
-        bricksCounter.increaseBy(numberOfBricksInRow * numberOfRows);
+        bricksCounter.increaseBy(brickField.getNumberOfBricks());
 
-        for (GameObject brick : bricks) {
-            gameObjects().addGameObject(brick, Layer.STATIC_OBJECTS);
-        }
+        gameObjects().layers().shouldLayersCollide(Layer.DEFAULT, Constants.BRICKS_LAYER, false);
+        gameObjects().addGameObject(brickField, Constants.BRICKS_LAYER);
     }
 
     /*
@@ -326,8 +578,8 @@ public class BrickerGameManager extends GameManager {
 
     /**
      * Initializes the game components and sets up the game environment.
-     * This method sets up the controller, window dimensions, background, borders, ball, paddle,
-     * bricks, and strikes.
+     * This method loads the assets (on the first game only, reporting the load time), and sets up the
+     * controller, window dimensions, background, borders, ball, paddle, bricks, and strikes.
      *
      * @param imageReader       The image reader used to load images.
      * @param soundReader       The sound reader used to load sounds.
@@ -338,9 +590,22 @@ public class BrickerGameManager extends GameManager {
     public void initializeGame(ImageReader imageReader, SoundReader soundReader,
                                UserInputListener inputListener, WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
+        if (inputRecorder != null) {
+            inputListener = inputRecorder.wrap(inputListener);  // the game reads only the recorded input
+        }
+        accumulatedTime = 0;
+        gameEnded = false;
 
-        controller = new Controller(imageReader, soundReader, inputListener, windowController);
+        if (assets == null) {
+            assets = new AssetRegistry(imageReader, soundReader);
+            System.out.printf(ASSETS_LOADED_FORMAT, assets.getAssetsCount(), assets.getLoadMillis());
+        }
+        controller = new Controller(imageReader, soundReader, inputListener, windowController, assets);
         windowDimensions = windowController.getWindowDimensions();
+        paddleInput = (autopilot != null) ? autopilot : new KeyboardPaddleInput(inputListener);
+        balls.clear();
+        activeStrategies.clear();
+        deactivatedStrategies.clear();
 
         initializeBackground();
         initializeBorders();
@@ -348,18 +613,24 @@ public class BrickerGameManager extends GameManager {
         initializePaddle();
         initializeBricks();
         initializeStrikes();
+        profilerOverlay = (profiler != null && showProfilerOverlay) ? new ProfilerOverlay(this, profiler,
+                new Vector2(getLeftRightBordersLimits()[0], getUpperBorderLimit())) : null;
     }
 
     /*
-     * Ends the strategies of blasted bricks.
-     * This method iterates through the bricks and ends the collision strategies of bricks that was blasted.
+     * Ends the active strategies.
+     * This method iterates through the active strategies only (pucks in flight, falling hearts, the extra
+     * paddle, the camera), so its cost doesn't depend on the number of bricks, and then removes the
+     * strategies that were deactivated.
      */
-    private void endStrategiesOfBlastedBricks() {
-        for (var brick : bricks) {
-            if (brick.getTag().equals(Constants.BLASTED_BRICK_TAG)) {  // if the strategy of the brick started
-                brick.getCollisionStrategy().endStrategy();
-            }
+    private void endActiveStrategies() {
+        for (var collisionStrategy : activeStrategies) {
+            collisionStrategy.endStrategy();
         }
+        for (var collisionStrategy : deactivatedStrategies) {
+            activeStrategies.remove(collisionStrategy);
+        }
+        deactivatedStrategies.clear();
     }
 
 
@@ -370,13 +641,28 @@ public class BrickerGameManager extends GameManager {
      * @param msg The message displayed to the player.
      */
     private void endCondition(String msg) {
+        gameEnded = true;
         if (controller.windowController.openYesNoDialog(msg)) {
             controller.windowController.resetGame();
         } else {
+            closeInputRecorder();
             controller.windowController.closeWindow();
         }
     }
 
+    /*
+     * Closes the input recorder, if any, so the recording is complete.
+     */
+    private void closeInputRecorder() {
+        if (inputRecorder != null) {
+            try {
+                inputRecorder.close();
+            } catch (IOException e) {
+                System.err.println(RECORDING_ERROR_MSG + e.getMessage());
+            }
+        }
+    }
+
     /*
      * Checks for strikes (loss conditions) and handles them accordingly.
      * If the ball goes beyond the window's bottom boundary, a strike is removed.
@@ -399,34 +685,154 @@ public class BrickerGameManager extends GameManager {
 
     /**
      * Updates the game state for each frame.
-     * It calls the superclass's update method, then ends strategies of blasted bricks, checks for strikes
-     * updates, and handles the player's input to end the game if the 'W' key is pressed.
+     * With a fixed time step, the elapsed time is simulated in fixed steps (and none after the game ended,
+     * until it's initialized again). Otherwise, a single step of the elapsed time is simulated.
      *
      * @param deltaTime The time elapsed since the last update.
      */
     @Override
     public void update(float deltaTime) {
+        if (fixedDeltaTime <= 0) {
+            step(deltaTime);
+            return;
+        }
+        accumulatedTime += deltaTime;
+        while (accumulatedTime >= fixedDeltaTime && !gameEnded) {
+            accumulatedTime -= fixedDeltaTime;
+            step(fixedDeltaTime);
+        }
+    }
+
+    /*
+     * Simulates a single step of the game.
+     * It records the input (if recording), calls the superclass's update method, then detects the collisions
+     * of the balls with the bricks, ends the active strategies, checks for strikes updates, and handles the
+     * player's input to end the game if the 'W' key is pressed. Every section is profiled, if profiling.
+     *
+     * @param deltaTime The time step.
+     */
+    private void step(float deltaTime) {
+        if (profiler != null) {
+            profiler.beginFrame();
+        }
+        if (inputRecorder != null) {
+            inputRecorder.nextFrame();
+        }
         super.update(deltaTime);
-        endStrategiesOfBlastedBricks();
+        endProfiledSection(FrameProfiler.Metric.SUPER_UPDATE);
+        long collisionTestsCount = brickField.getCandidatesCount();
+        brickField.collide(balls, deltaTime);
+        collisionTestsCount = brickField.getCandidatesCount() - collisionTestsCount;
+        endProfiledSection(FrameProfiler.Metric.BRICK_COLLISIONS);
+        int ballsCount = balls.size();
+        int activeStrategiesCount = activeStrategies.size();
+        endActiveStrategies();
+        endProfiledSection(FrameProfiler.Metric.STRATEGIES);
         checkForStrikes();
+        endProfiledSection(FrameProfiler.Metric.STRIKES);
         if (controller.inputListener.isKeyPressed(KeyEvent.VK_W)) {
             endCondition(WIN_MSG);
         }
+        if (profiler != null) {
+            profiler.count(FrameProfiler.Metric.COLLISION_TESTS, collisionTestsCount);
+            profiler.count(FrameProfiler.Metric.BALLS, ballsCount);
+            profiler.count(FrameProfiler.Metric.ACTIVE_STRATEGIES, activeStrategiesCount);
+            profiler.endFrame();
+            if (profilerOverlay != null) {
+                profilerOverlay.update();
+            }
+        }
+    }
+
+    /*
+     * Ends a section of the profiled frame, if profiling.
+     */
+    private void endProfiledSection(FrameProfiler.Metric metric) {
+        if (profiler != null) {
+            profiler.endSection(metric);
+        }
+    }
+
+    /*
+     * Parses the dimensions of the bricks table from the command-line arguments, from the given index on:
+     * the number of bricks in a row and the number of rows, or the default dimensions if they are missing.
+     *
+     * @param args   The command-line arguments.
+     * @param offset The index of the number of bricks in a row.
+     * @return The dimensions of the bricks table.
+     */
+    static Vector2 bricksTableDimensionsOf(String[] args, int offset) {
+        if (args.length >= offset + Constants.TWO) {
+            return new Vector2(Integer.parseInt(args[offset]), Integer.parseInt(args[offset + 1]));
+        }
+        return new Vector2(NUMBER_OF_BRICKS_IN_ROW, NUMBER_OF_ROWS);
+    }
+
+    /*
+     * Opens the level file of the command-line argument of the given index, if it's a level argument.
+     *
+     * @param args   The command-line arguments.
+     * @param offset The index of the level argument.
+     * @return The level, or null if the argument is missing or isn't a level argument.
+     * @throws IOException if the level file could not be read, or is not a valid level.
+     */
+    static LevelFile levelOf(String[] args, int offset) throws IOException {
+        if (args.length > offset && args[offset].startsWith(LEVEL_PREFIX)) {
+            return LevelFile.open(Path.of(args[offset].substring(LEVEL_PREFIX.length())));
+        }
+        return null;
     }
 
     /**
      * Main method to start the game.
-     * It initializes the game manager with the provided dimensions or defaults,
-     * then starts the game loop by calling the run method.
+     * It initializes the game manager with the provided dimensions or defaults (or with a level file, given
+     * as "level:" and its path), then starts the game loop by calling the run method.
+     * Given a recording file after the dimensions, the game runs on a fixed time step and its input is
+     * recorded to the file, to be replayed by HeadlessSimulation (which replays the random bricks of the
+     * recorded seed, so a game on a level isn't recorded). Given -profile first, the game's frames
+     * are profiled, and the profile is displayed over the game.
      *
-     * @param args Command-line arguments for specifying the dimensions of the bricks table.
+     * @param args Command-line arguments for optionally profiling, specifying the dimensions of the bricks
+     *             table or the level, and optionally the recording file.
      */
     public static void main(String[] args) {
-        Vector2 bricksTableDimensions = new Vector2(NUMBER_OF_BRICKS_IN_ROW, NUMBER_OF_ROWS);
-        if (args.length == Constants.TWO) {
-            bricksTableDimensions = new Vector2(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        boolean profile = args.length > 0 && args[0].equals(PROFILE_FLAG);
+        if (profile) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        LevelFile level;
+        try {
+            level = levelOf(args, 0);
+        } catch (IOException e) {
+            System.err.println(LEVEL_ERROR_MSG + e.getMessage());
+            return;
+        }
+        Vector2 bricksTableDimensions = (level != null) ?
+                new Vector2(level.getNumberOfBricksInRow(), level.getNumberOfRows()) :
+                bricksTableDimensionsOf(args, 0);
+        if (level != null && args.length > 1) {
+            System.err.println(LEVEL_RECORDING_MSG);
+            return;
         }
         BrickerGameManager brickerGameManager = new BrickerGameManager(bricksTableDimensions);
+        brickerGameManager.setLevel(level);
+        if (profile) {
+            brickerGameManager.setProfiler(new FrameProfiler(PROFILER_WINDOW_FRAMES), true);
+        }
+        if (args.length > Constants.TWO) {
+            try {
+                InputRecorder inputRecorder = new InputRecorder(Path.of(args[Constants.TWO]),
+                        brickerGameManager.getSeed(), HeadlessSimulation.FIXED_DELTA_TIME,
+                        bricksTableDimensions);
+                brickerGameManager.setFixedDeltaTime(HeadlessSimulation.FIXED_DELTA_TIME);
+                brickerGameManager.setInputRecorder(inputRecorder);
+                // The window may be closed without an end-game dialog, so the recording is closed on exit:
+                Runtime.getRuntime().addShutdownHook(new Thread(brickerGameManager::closeInputRecorder));
+                System.out.printf(RECORDING_FORMAT, args[Constants.TWO], brickerGameManager.getSeed());
+            } catch (IOException e) {
+                System.err.println(RECORDING_ERROR_MSG + e.getMessage());
+            }
+        }
         brickerGameManager.run();
     }
 
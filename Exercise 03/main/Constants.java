@@ -1,5 +1,7 @@
 package bricker.main;
 
+import danogl.collisions.Layer;
+
 /**
  * Constants class containing various constant values used in the game.
  * Includes: General (numbers, empty string), Assets (all paths to the assets), Tags (to objects) constants.
@@ -77,6 +79,15 @@ public class Constants {
     public static final String HEART_IMAGE_PATH = "assets/heart.png";
 
 
+    // Layers Constants:
+
+    /**
+     * Layer of the bricks, just above the static objects. Its collisions with the balls are detected by the
+     * BrickField, and not by danogl.
+     */
+    public static final int BRICKS_LAYER = Layer.STATIC_OBJECTS + 1;
+
+
     // Tags Constants:
 
     /**
@@ -89,9 +100,4 @@ public class Constants {
      */
     public static final String MAIN_PADDLE_TAG = "main_paddle";
 
-    /**
-     * Tag for some blasted bricks.
-     */
-    public static final String BLASTED_BRICK_TAG = "blasted_brick";
-
 }
@@ -7,6 +7,7 @@ import danogl.gui.WindowController;
 
 /**
  * Controller class responsible for managing window, input, image, and sound resources.
+ * The images and sounds of the game are loaded once, to the assets registry.
  */
 public class Controller {
 
@@ -30,6 +31,11 @@ public class Controller {
      */
     public final UserInputListener inputListener;
 
+    /**
+     * Instance of AssetRegistry holding the loaded images and sounds.
+     */
+    public final AssetRegistry assets;
+
     /**
      * Constructs a Controller object.
      *
@@ -37,12 +43,15 @@ public class Controller {
      * @param soundReader     The SoundReader instance.
      * @param inputListener   The UserInputListener instance.
      * @param windowController The WindowController instance.
+     * @param assets          The AssetRegistry instance, loaded by the readers.
      */
     public Controller(ImageReader imageReader, SoundReader soundReader,
-                      UserInputListener inputListener, WindowController windowController) {
+                      UserInputListener inputListener, WindowController windowController,
+                      AssetRegistry assets) {
         this.windowController = windowController;
         this.imageReader = imageReader;
         this.soundReader = soundReader;
         this.inputListener = inputListener;
+        this.assets = assets;
     }
 }
@@ -0,0 +1,238 @@
+package bricker.main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * A profiler of the frames of the Bricker game: breaks down the time of every update into its sections (the
+ * danogl update, the bricks collisions, the strategies and the strikes checks), and counts the collision
+ * tests, the balls, the active strategies and the bytes allocated in the frame.
+ * The metrics are kept for a rolling window of the last frames, in preallocated arrays, and summarized as
+ * percentiles (p50, p95, p99 and the max) - so a frame drop shows in the tail even when the average frame is
+ * fast, together with what grew with it (e.g. the number of pucks).
+ * <p>
+ * The allocated bytes are measured by the JVM's per-thread allocation counter, where it's supported.
+ */
+public class FrameProfiler {
+
+    /**
+     * The metrics of a frame.
+     */
+    public enum Metric {
+        /**
+         * The time of the whole frame.
+         */
+        FRAME("frame", Unit.MILLIS),
+        /**
+         * The time of the danogl update of the game objects (movement, danogl collisions, components).
+         */
+        SUPER_UPDATE("danogl update", Unit.MILLIS),
+        /**
+         * The time of the balls collisions with the bricks.
+         */
+        BRICK_COLLISIONS("brick collisions", Unit.MILLIS),
+        /**
+         * The time of ending the active strategies.
+         */
+        STRATEGIES("strategies", Unit.MILLIS),
+        /**
+         * The time of the strikes checks.
+         */
+        STRIKES("strikes", Unit.MILLIS),
+        /**
+         * The number of ball-brick collision tests (after the broadphase).
+         */
+        COLLISION_TESTS("collision tests", Unit.COUNT),
+        /**
+         * The number of balls in the game: the main ball and the pucks.
+         */
+        BALLS("balls", Unit.COUNT),
+        /**
+         * The number of active strategies.
+         */
+        ACTIVE_STRATEGIES("active strategies", Unit.COUNT),
+        /**
+         * The bytes allocated in the frame.
+         */
+        ALLOCATED("allocated", Unit.KILOBYTES);
+
+        private final String name;
+        private final Unit unit;
+
+        Metric(String name, Unit unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+    }
+
+    /*
+     * The units that the metrics are reported in, by their scale from the measured value.
+     */
+    private enum Unit {
+        MILLIS("ms", 1e-6), COUNT("", 1), KILOBYTES("KB", 1.0 / 1024);
+
+        private final String symbol;
+        private final double scale;
+
+        Unit(String symbol, double scale) {
+            this.symbol = symbol;
+            this.scale = scale;
+        }
+    }
+
+    /* Report Constants: */
+    private static final double[] PERCENTILES = {50, 95, 99, 100};
+    private static final double PERCENT = 100;
+    private static final String HEADER_FORMAT = "last %d frames: p50 / p95 / p99 / max";
+    private static final String METRIC_FORMAT = "%-17s %9.3f %9.3f %9.3f %9.3f %s";
+    private static final String RATE_FORMAT = "allocation rate: %.1f MB/s";
+    private static final String NO_ALLOCATION_MSG = "allocation rate: not supported by this JVM";
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final com.sun.management.ThreadMXBean allocationCounter;  // null if not supported
+    private final int windowFrames;
+    private final long[][] samples;  // by metric, and by frame in the window (cyclically)
+    private final long[] frameStarts;  // by frame in the window, for the allocation rate
+    private final long[] sorted;  // for the percentiles, so reporting doesn't allocate
+    private long framesCount = 0;
+    private int cursor = 0;  // the current frame's index in the window
+    private long sectionStart = 0;
+    private long allocatedAtStart = 0;
+
+    /**
+     * Constructs a FrameProfiler of a rolling window of the given number of frames.
+     *
+     * @param windowFrames The number of last frames that the metrics are summarized of.
+     */
+    public FrameProfiler(int windowFrames) {
+        this.windowFrames = windowFrames;
+        this.samples = new long[Metric.values().length][windowFrames];
+        this.frameStarts = new long[windowFrames];
+        this.sorted = new long[windowFrames];
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            this.allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+            allocationCounter.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.allocationCounter = null;
+        }
+    }
+
+    /**
+     * Starts profiling a frame, and its first section.
+     */
+    public void beginFrame() {
+        sectionStart = System.nanoTime();
+        frameStarts[cursor] = sectionStart;
+        if (allocationCounter != null) {
+            allocatedAtStart = allocationCounter.getCurrentThreadAllocatedBytes();
+        }
+    }
+
+    /**
+     * Ends a section of the frame (which started when the previous one ended), and starts the next one.
+     *
+     * @param metric The metric of the section's time.
+     */
+    public void endSection(Metric metric) {
+        long now = System.nanoTime();
+        samples[metric.ordinal()][cursor] = now - sectionStart;
+        sectionStart = now;
+    }
+
+    /**
+     * Counts a metric of the frame.
+     *
+     * @param metric The metric of the count.
+     * @param count  The count in this frame.
+     */
+    public void count(Metric metric, long count) {
+        samples[metric.ordinal()][cursor] = count;
+    }
+
+    /**
+     * Ends profiling the frame: measures its time and allocated bytes, and moves to the next frame.
+     */
+    public void endFrame() {
+        samples[Metric.FRAME.ordinal()][cursor] = System.nanoTime() - frameStarts[cursor];
+        if (allocationCounter != null) {
+            samples[Metric.ALLOCATED.ordinal()][cursor] =
+                    allocationCounter.getCurrentThreadAllocatedBytes() - allocatedAtStart;
+        }
+        cursor = (cursor + 1) % windowFrames;
+        framesCount++;
+    }
+
+    /**
+     * Retrieves the number of profiled frames.
+     *
+     * @return The number of frames profiled so far.
+     */
+    public long getFramesCount() {
+        return framesCount;
+    }
+
+    /**
+     * Calculates a percentile of a metric over the frames in the window.
+     *
+     * @param metric     The metric.
+     * @param percentile The percentile, between 0 and 100 (the max).
+     * @return The percentile, in the metric's unit (milliseconds, a count or KB), or 0 if no frame was
+     *         profiled yet.
+     */
+    public double getPercentile(Metric metric, double percentile) {
+        int numberOfFrames = (int) Math.min(framesCount, windowFrames);
+        if (numberOfFrames == 0) {
+            return 0;
+        }
+        System.arraycopy(samples[metric.ordinal()], 0, sorted, 0, numberOfFrames);
+        Arrays.sort(sorted, 0, numberOfFrames);
+        int rank = (int) Math.ceil(percentile / PERCENT * numberOfFrames) - 1;
+        return sorted[Math.max(0, Math.min(numberOfFrames - 1, rank))] * metric.unit.scale;
+    }
+
+    /**
+     * Calculates the rate of allocation over the frames in the window, by the wall time since the first of
+     * them started.
+     *
+     * @return The allocation rate, in MB per second, or a negative number if it's not supported.
+     */
+    public double getAllocationRate() {
+        int numberOfFrames = (int) Math.min(framesCount, windowFrames);
+        if (allocationCounter == null || numberOfFrames == 0) {
+            return -1;
+        }
+        long allocated = 0;
+        long[] allocatedSamples = samples[Metric.ALLOCATED.ordinal()];
+        for (int i = 0; i < numberOfFrames; i++) {
+            allocated += allocatedSamples[i];
+        }
+        int first = (numberOfFrames < windowFrames) ? 0 : cursor;  // the oldest frame in the window
+        long elapsed = Math.max(1, System.nanoTime() - frameStarts[first]);
+        return allocated / BYTES_PER_MEGABYTE / (elapsed / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Formats the report of the window: a line per metric, of its percentiles, and the allocation rate.
+     *
+     * @return The lines of the report.
+     */
+    public String[] getReportLines() {
+        Metric[] metrics = Metric.values();
+        String[] lines = new String[metrics.length + Constants.TWO];
+        lines[0] = String.format(HEADER_FORMAT, Math.min(framesCount, windowFrames));
+        for (Metric metric : metrics) {
+            lines[metric.ordinal() + 1] = String.format(METRIC_FORMAT, metric.name,
+                    getPercentile(metric, PERCENTILES[0]), getPercentile(metric, PERCENTILES[1]),
+                    getPercentile(metric, PERCENTILES[2]), getPercentile(metric, PERCENTILES[3]),
+                    metric.unit.symbol).stripTrailing();
+        }
+        double allocationRate = getAllocationRate();
+        lines[lines.length - 1] = (allocationRate < 0) ? NO_ALLOCATION_MSG :
+                String.format(RATE_FORMAT, allocationRate);
+        return lines;
+    }
+}
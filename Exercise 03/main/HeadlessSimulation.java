@@ -0,0 +1,546 @@
+package bricker.main;
+
+import bricker.gameobjects.Ball;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.LayerManager;
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A headless simulation of the Bricker game. Runs a BrickerGameManager without a window, by stand-in window,
+ * input, image and sound components, and steps its update on a fixed timestep as fast as the CPU allows.
+ * The stand-ins load no files - images are not rendered and sounds are silent - and every end-game dialog is
+ * answered "play again", so a single run simulates many games (hours of gameplay) in seconds.
+ * The stand-ins rely on danogl's API: WindowController and UserInputListener are interfaces (stood in by
+ * proxies), and ImageReader and SoundReader are constructed of a WindowController, and read an image and a
+ * sound by overridable methods. The game also relies on the collection of game objects to list a layer's
+ * objects and to set which layers collide. A danogl that differs fails the construction of the simulation,
+ * with the difference; calls of the game engine that the game itself doesn't make are answered by empty
+ * values.
+ * <p>
+ * A seeded game on a fixed time step is deterministic: given the same input, it plays exactly the same. So
+ * the simulation can replay a recording of InputRecorder, and its checksum of the game's state over all the
+ * frames must be the same in every replay (and on every machine) - a regression test of the game's logic.
+ * <p>
+ * With -autopilot, the paddles are moved by an Autopilot, so the games go on as a player plays them, and the
+ * progress (frames simulated per second) is reported periodically along long unattended runs.
+ * With -profile, the frames are profiled, and the profile of the last frames is reported at the end.
+ * Usage: java bricker.main.HeadlessSimulation [-autopilot] [-profile] framesCount
+ *        [bricksInRow rows | level:levelFile] [seed]
+ *        java bricker.main.HeadlessSimulation replay:recordingFile
+ */
+public class HeadlessSimulation {
+
+    /**
+     * The fixed time step of a simulated frame, in seconds.
+     */
+    public static final float FIXED_DELTA_TIME = 1f / 60;
+
+    /* Main Constants: */
+    private static final String USAGE_MSG = "Usage: java bricker.main.HeadlessSimulation " +
+            "[-autopilot] [-profile] framesCount [bricksInRow rows | level:levelFile] [seed] | " +
+            "replay:recordingFile";
+    private static final String AUTOPILOT_FLAG = "-autopilot";
+    private static final String PROFILE_FLAG = "-profile";
+    private static final String FLAG_PREFIX = "-";
+    private static final String PROFILE_LINE_FORMAT = "  %s%n";
+    private static final String REPLAY_PREFIX = "replay:";
+    private static final String REPLAY_ERROR_MSG = "Replay failed: ";
+    private static final String LEVEL_ERROR_MSG = "Level loading failed: ";
+    private static final String DANOGL_MISMATCH_MSG = "The stand-ins don't fit this danogl: ";
+    private static final String NOT_INTERFACE_MSG = "%s is not an interface";
+    private static final String MISSING_MEMBER_MSG = "%s has no overridable %s";
+    private static final String MISSING_METHOD_MSG = "%s has no %s";
+    private static final String REPORT_FORMAT =
+            "frames: %d, simulated: %.1f s, wall: %d ms, frames/sec: %.0f, games: %d%n";
+    private static final String CHECKSUM_FORMAT = "seed: %d, checksum: %016x%n";
+    private static final String PROGRESS_FORMAT = "  ... frames: %d, frames/sec: %.0f, games: %d%n";
+    private static final long PROGRESS_CHUNK_FRAMES = 1000;
+    private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+    private static final long CHECKSUM_MULTIPLIER = 31;
+    private static final String DIALOG_FORMAT = "  \"%s\": %d%n";
+    private static final String POOL_FORMAT = "  %s pool: %d hits, %d misses, %d drops%n";
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /* Stand-ins fields: */
+    private final Vector2 windowDimensions;
+    private final WindowController windowController;
+    private final UserInputListener inputListener;
+    private final ImageReader imageReader;
+    private final SoundReader soundReader;
+    private final Set<Integer> pressedKeys = new HashSet<>();
+
+    /* Simulation fields: */
+    private final BrickerGameManager brickerGameManager;
+    private final float deltaTime;
+    private final Map<String, Integer> dialogsCount = new LinkedHashMap<>();
+    private boolean resetRequested = false;
+    private boolean closed = false;
+    private long framesCount = 0;
+    private int gamesCount = 0;
+    private long checksum = 0;
+
+    /**
+     * Constructs a headless simulation of the given game on the default time step, and initializes the game.
+     *
+     * @param brickerGameManager The game to simulate. Its run method should not be called.
+     * @param windowDimensions   The dimensions of the simulated window.
+     */
+    public HeadlessSimulation(BrickerGameManager brickerGameManager, Vector2 windowDimensions) {
+        this(brickerGameManager, windowDimensions, FIXED_DELTA_TIME);
+    }
+
+    /**
+     * Constructs a headless simulation of the given game, and initializes the game.
+     *
+     * @param brickerGameManager The game to simulate. Its run method should not be called.
+     * @param windowDimensions   The dimensions of the simulated window.
+     * @param deltaTime          The fixed time step of a simulated frame, in seconds.
+     */
+    public HeadlessSimulation(BrickerGameManager brickerGameManager, Vector2 windowDimensions,
+                              float deltaTime) {
+        checkDanogl();
+        this.brickerGameManager = brickerGameManager;
+        this.windowDimensions = windowDimensions;
+        this.deltaTime = deltaTime;
+        this.windowController = standIn(WindowController.class, this::onWindowCall);
+        this.inputListener = standIn(UserInputListener.class, this::onInputCall);
+        this.imageReader = new HeadlessImageReader(windowController);
+        this.soundReader = new HeadlessSoundReader(windowController);
+        initializeGame();
+    }
+
+    /**
+     * Simulates frames of the game, until the given number of frames or until the window is closed.
+     *
+     * @param frames The maximal number of frames to simulate.
+     * @return The number of frames that were simulated.
+     */
+    public long step(long frames) {
+        long simulated = 0;
+        while (simulated < frames && !closed) {
+            if (resetRequested) {
+                initializeGame();
+            }
+            brickerGameManager.update(deltaTime);
+            updateChecksum();
+            simulated++;
+        }
+        framesCount += simulated;
+        return simulated;
+    }
+
+    /**
+     * Replays a recording, frame by frame - the recorded keys are pressed before every frame - until the
+     * recording ends or the window is closed. The game should be seeded by the recording, and the
+     * simulation should be on its time step.
+     *
+     * @param inputReplay The recording to replay.
+     * @return The number of frames that were simulated.
+     * @throws IOException if the recording could not be read.
+     */
+    public long replay(InputReplay inputReplay) throws IOException {
+        long simulated = 0;
+        int mask;
+        while (!closed && (mask = inputReplay.nextFrame()) >= 0) {
+            for (int keyCode : InputRecorder.RECORDED_KEYS) {
+                if (InputRecorder.isPressed(mask, keyCode)) {
+                    pressKey(keyCode);
+                } else {
+                    releaseKey(keyCode);
+                }
+            }
+            simulated += step(1);
+        }
+        return simulated;
+    }
+
+    /**
+     * Presses a key of the stand-in input, until it is released.
+     *
+     * @param keyCode The code of the key, as in KeyEvent.
+     */
+    public void pressKey(int keyCode) {
+        pressedKeys.add(keyCode);
+    }
+
+    /**
+     * Releases a pressed key of the stand-in input.
+     *
+     * @param keyCode The code of the key, as in KeyEvent.
+     */
+    public void releaseKey(int keyCode) {
+        pressedKeys.remove(keyCode);
+    }
+
+    /**
+     * Checks whether the game closed its window.
+     *
+     * @return True if the window was closed, so no more frames will be simulated.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Retrieves the simulated game.
+     *
+     * @return The game manager of the simulation.
+     */
+    public BrickerGameManager getGameManager() {
+        return brickerGameManager;
+    }
+
+    /**
+     * Retrieves the number of simulated frames.
+     *
+     * @return The number of frames simulated so far.
+     */
+    public long getFramesCount() {
+        return framesCount;
+    }
+
+    /**
+     * Retrieves the checksum of the game's state: of the main ball's position and velocity after every
+     * simulated frame. Two simulations that played the same have the same checksum.
+     *
+     * @return The checksum of all the frames simulated so far.
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Retrieves the number of played games.
+     *
+     * @return The number of games that were initialized so far (including the current one).
+     */
+    public int getGamesCount() {
+        return gamesCount;
+    }
+
+    /**
+     * Retrieves the end-game dialogs that were opened.
+     *
+     * @return The number of times every dialog message was opened, by message.
+     */
+    public Map<String, Integer> getDialogsCount() {
+        return Collections.unmodifiableMap(dialogsCount);
+    }
+
+    /*
+     * Initializes (or re-initializes, after a reset) the game with the stand-ins.
+     */
+    private void initializeGame() {
+        resetRequested = false;
+        brickerGameManager.initializeGame(imageReader, soundReader, inputListener, windowController);
+        gamesCount++;
+    }
+
+    /*
+     * Mixes the state of the game after a frame into the checksum, by the exact bits of the main ball's
+     * position and velocity (which every collision, strategy and input affects, sooner or later).
+     */
+    private void updateChecksum() {
+        Ball ball = brickerGameManager.getBall();
+        Vector2 center = ball.getCenter(), velocity = ball.getVelocity();
+        float[] state = {center.x(), center.y(), velocity.x(), velocity.y()};
+        for (float value : state) {
+            checksum = checksum * CHECKSUM_MULTIPLIER + Float.floatToIntBits(value);
+        }
+    }
+
+    /*
+     * Handles a call to the stand-in window controller. Dialogs are answered "play again", and a reset or
+     * a close takes effect before the next frame. Any other call does nothing.
+     */
+    private Object onWindowCall(Method method, Object[] args) {
+        switch (method.getName()) {
+        case "getWindowDimensions":
+            return windowDimensions;
+        case "openYesNoDialog":
+            dialogsCount.merge((String) args[0], 1, Integer::sum);
+            return true;
+        case "resetGame":
+            resetRequested = true;
+            return null;
+        case "closeWindow":
+            closed = true;
+            return null;
+        default:
+            return defaultValue(method.getReturnType());
+        }
+    }
+
+    /*
+     * Handles a call to the stand-in input listener, by the keys pressed with pressKey.
+     */
+    private Object onInputCall(Method method, Object[] args) {
+        if (method.getName().equals("isKeyPressed")) {
+            return pressedKeys.contains((Integer) args[0]);
+        }
+        return defaultValue(method.getReturnType());
+    }
+
+    /*
+     * Creates a stand-in of a danogl interface, whose calls are handled by the given handler (except for
+     * the methods of Object, which are by identity). The interface's other methods, which the game doesn't
+     * use, return the default value of their type.
+     */
+    private static <T> T standIn(Class<T> type, StandInHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return type.getSimpleName();
+                }
+            }
+            return handler.handle(method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                invocationHandler));
+    }
+
+    /*
+     * Returns the default value of a type: zero or false for a primitive type, an empty string, a stand-in
+     * that does nothing for an interface (so a chained call doesn't fail), and null otherwise.
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (type.isPrimitive()) {
+            return (type != void.class) ? Array.get(Array.newInstance(type, 1), 0) : null;
+        }
+        if (type == String.class) {
+            return "";
+        }
+        return type.isInterface() ? standIn(type, (method, args) -> defaultValue(method.getReturnType())) :
+                null;
+    }
+
+    /*
+     * Checks that danogl's API fits the stand-ins and the game: that the stood-in types are interfaces, that
+     * the readers have the overridden constructors and methods, and that the layers can be listed and set.
+     */
+    private static void checkDanogl() {
+        for (Class<?> type : new Class<?>[]{WindowController.class, UserInputListener.class}) {
+            if (!type.isInterface()) {
+                throw new IllegalStateException(
+                        DANOGL_MISMATCH_MSG + String.format(NOT_INTERFACE_MSG, type.getName()));
+            }
+        }
+        checkOverridable(ImageReader.class, "readImage", String.class, boolean.class);
+        checkOverridable(SoundReader.class, "readSound", String.class);
+        checkMethod(GameObjectCollection.class, "objectsInLayer", int.class);
+        checkMethod(GameObjectCollection.class, "layers");
+        checkMethod(LayerManager.class, "shouldLayersCollide", int.class, int.class, boolean.class);
+    }
+
+    /*
+     * Checks that a danogl type has the given public method, that the game calls.
+     */
+    private static void checkMethod(Class<?> type, String methodName, Class<?>... parameterTypes) {
+        try {
+            type.getMethod(methodName, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(
+                    DANOGL_MISMATCH_MSG + String.format(MISSING_METHOD_MSG, type.getName(), methodName));
+        }
+    }
+
+    /*
+     * Checks that a danogl reader can be extended by a stand-in: that it has a public constructor of a
+     * WindowController, and the given public, non-final method.
+     */
+    private static void checkOverridable(Class<?> type, String methodName, Class<?>... parameterTypes) {
+        String member = methodName;
+        try {
+            Method method = type.getMethod(methodName, parameterTypes);
+            if (Modifier.isFinal(type.getModifiers()) || Modifier.isFinal(method.getModifiers())) {
+                throw new NoSuchMethodException();
+            }
+            member = type.getSimpleName() + "(WindowController)";
+            type.getConstructor(WindowController.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(
+                    DANOGL_MISMATCH_MSG + String.format(MISSING_MEMBER_MSG, type.getName(), member));
+        }
+    }
+
+    /*
+     * A handler of the calls to a stand-in.
+     */
+    private interface StandInHandler {
+        Object handle(Method method, Object[] args);
+    }
+
+    /*
+     * A stand-in image reader, which reads no files: every image is null, that is not rendered.
+     */
+    private static class HeadlessImageReader extends ImageReader {
+        HeadlessImageReader(WindowController windowController) {
+            super(windowController);
+        }
+
+        @Override
+        public ImageRenderable readImage(String imageFilePath, boolean isTopLeftPixelTransparent) {
+            return null;
+        }
+    }
+
+    /*
+     * A stand-in sound reader, which reads no files: every sound is null, that is silent.
+     */
+    private static class HeadlessSoundReader extends SoundReader {
+        HeadlessSoundReader(WindowController windowController) {
+            super(windowController);
+        }
+
+        @Override
+        public Sound readSound(String soundFilePath) {
+            return null;
+        }
+    }
+
+    /**
+     * Main method to run a headless simulation.
+     * Simulates the given number of frames of a game of the given (or the default) bricks table dimensions
+     * and seed (or a random one), or replays a recording, and reports the simulation's speed and checksum,
+     * the end-game dialogs that were opened, the objects pools and the frames profile (if profiled).
+     *
+     * @param args Optionally -autopilot and -profile, the number of frames, and optionally the dimensions of
+     *             the bricks table (or "level:" and the level file) and the seed; or "replay:" and the
+     *             recording file.
+     */
+    public static void main(String[] args) {
+        if (args.length == 1 && args[0].startsWith(REPLAY_PREFIX)) {
+            Path recordingFile = Path.of(args[0].substring(REPLAY_PREFIX.length()));
+            try (InputReplay inputReplay = new InputReplay(recordingFile)) {
+                BrickerGameManager brickerGameManager = new BrickerGameManager(
+                        inputReplay.getBricksTableDimensions(), inputReplay.getSeed());
+                long start = System.nanoTime();
+                HeadlessSimulation simulation = new HeadlessSimulation(brickerGameManager,
+                        BrickerGameManager.WINDOW_DIMENSIONS, inputReplay.getFixedDeltaTime());
+                long simulated = simulation.replay(inputReplay);
+                report(simulation, simulated, System.nanoTime() - start);
+            } catch (IOException e) {
+                System.err.println(REPLAY_ERROR_MSG + e.getMessage());
+            }
+            return;
+        }
+        boolean autopilot = false, profile = false;
+        int flagsCount = 0;
+        for (; flagsCount < args.length && args[flagsCount].startsWith(FLAG_PREFIX); flagsCount++) {
+            autopilot |= args[flagsCount].equals(AUTOPILOT_FLAG);
+            profile |= args[flagsCount].equals(PROFILE_FLAG);
+        }
+        args = Arrays.copyOfRange(args, flagsCount, args.length);
+        LevelFile level;
+        try {
+            level = BrickerGameManager.levelOf(args, 1);
+        } catch (IOException e) {
+            System.err.println(LEVEL_ERROR_MSG + e.getMessage());
+            return;
+        }
+        int seedIndex = (level != null) ? Constants.TWO : 1 + Constants.TWO;
+        if (args.length != 1 && args.length != seedIndex && args.length != seedIndex + 1) {
+            System.err.println(USAGE_MSG);
+            return;
+        }
+        long frames = Long.parseLong(args[0]);
+        Vector2 bricksTableDimensions = (level != null) ?
+                new Vector2(level.getNumberOfBricksInRow(), level.getNumberOfRows()) :
+                BrickerGameManager.bricksTableDimensionsOf(args, 1);
+        BrickerGameManager brickerGameManager = (args.length > seedIndex) ?
+                new BrickerGameManager(bricksTableDimensions, Long.parseLong(args[seedIndex])) :
+                new BrickerGameManager(bricksTableDimensions);
+        brickerGameManager.setLevel(level);
+        if (autopilot) {
+            brickerGameManager.setAutopilot(new Autopilot(brickerGameManager));
+        }
+        if (profile) {
+            FrameProfiler profiler = new FrameProfiler(BrickerGameManager.PROFILER_WINDOW_FRAMES);
+            brickerGameManager.setProfiler(profiler, false);
+        }
+
+        long start = System.nanoTime();
+        HeadlessSimulation simulation = new HeadlessSimulation(brickerGameManager,
+                BrickerGameManager.WINDOW_DIMENSIONS);
+        long simulated = stepWithProgress(simulation, frames);
+        report(simulation, simulated, System.nanoTime() - start);
+    }
+
+    /*
+     * Simulates frames of the game in chunks, reporting the progress every few seconds (of wall time) - the
+     * frames simulated so far, and the frames per second since the last report.
+     */
+    private static long stepWithProgress(HeadlessSimulation simulation, long frames) {
+        long simulated = 0, reportedFrames = 0;
+        long reportTime = System.nanoTime();
+        while (simulated < frames && !simulation.isClosed()) {
+            simulated += simulation.step(Math.min(PROGRESS_CHUNK_FRAMES, frames - simulated));
+            long now = System.nanoTime();
+            if (now - reportTime >= PROGRESS_INTERVAL_NANOS) {
+                System.out.printf(PROGRESS_FORMAT, simulated,
+                        (simulated - reportedFrames) * NANOS_PER_SECOND / (now - reportTime),
+                        simulation.getGamesCount());
+                reportedFrames = simulated;
+                reportTime = now;
+            }
+        }
+        return simulated;
+    }
+
+    /*
+     * Prints the report of a simulation that simulated the given frames in the given time.
+     */
+    private static void report(HeadlessSimulation simulation, long simulated, long elapsed) {
+        BrickerGameManager brickerGameManager = simulation.getGameManager();
+        System.out.printf(REPORT_FORMAT, simulated, simulated * simulation.deltaTime,
+                elapsed / NANOS_PER_MILLI, simulated * NANOS_PER_SECOND / Math.max(1, elapsed),
+                simulation.getGamesCount());
+        System.out.printf(CHECKSUM_FORMAT, brickerGameManager.getSeed(), simulation.getChecksum());
+        for (Map.Entry<String, Integer> dialog : simulation.getDialogsCount().entrySet()) {
+            System.out.printf(DIALOG_FORMAT, dialog.getKey(), dialog.getValue());
+        }
+        printPool("pucks", brickerGameManager.getPucksPool());
+        printPool("hearts", brickerGameManager.getHeartsPool());
+        printPool("paddles", brickerGameManager.getPaddlesPool());
+        FrameProfiler profiler = brickerGameManager.getProfiler();
+        if (profiler != null) {
+            for (String line : profiler.getReportLines()) {
+                System.out.printf(PROFILE_LINE_FORMAT, line);
+            }
+            System.out.printf(PROFILE_LINE_FORMAT, brickerGameManager.formatObjectsPerLayer());
+        }
+    }
+
+    /*
+     * Prints the counters of an object pool.
+     */
+    private static void printPool(String name, ObjectPool<?> pool) {
+        System.out.printf(POOL_FORMAT, name, pool.getHits(), pool.getMisses(), pool.getDrops());
+    }
+}
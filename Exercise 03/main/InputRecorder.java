@@ -0,0 +1,193 @@
+package bricker.main;
+
+import danogl.gui.UserInputListener;
+import danogl.util.Vector2;
+
+import java.awt.event.KeyEvent;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records the input of a game, frame by frame, to a compact file that InputReplay replays.
+ * The game must be seeded and run on a fixed timestep: the file starts with the seed, the time step and the
+ * bricks table dimensions, and then holds the pressed keys of every frame as a mask (a bit per recorded key),
+ * run-length encoded - a mask byte and the number of frames it lasted, as a variable-length integer. So an
+ * hour of play takes a few KB.
+ * <p>
+ * During a recorded frame the game must read its input from the recorder's listener (and not the window's),
+ * which answers by the mask that was sampled at the frame's start - so the game sees exactly what's
+ * recorded, even if keys are pressed in the middle of the frame.
+ * A recording that fails to be written stops (with an error message), but the game goes on.
+ */
+public class InputRecorder implements AutoCloseable {
+
+    /**
+     * The magic number that starts every recording file ("BRKR").
+     */
+    public static final int MAGIC = 0x42524B52;
+
+    /**
+     * The version of the recording file format.
+     */
+    public static final byte VERSION = 1;
+
+    /* Keys Constants: */
+    static final int[] RECORDED_KEYS = {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_W};
+
+    private static final String RECORDING_FAILED_MSG = "Input recording stopped: ";
+
+    /* Varint Constants: */
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+
+    private final DataOutputStream output;
+    private final UserInputListener recordedInputListener;
+    private UserInputListener windowInputListener = null;
+    private int mask = 0;  // the mask of the current frame
+    private int runLength = 0;  // the number of frames of the current mask, not yet written
+    private long framesCount = 0;
+    private boolean closed = false;
+    private boolean failed = false;
+
+    /**
+     * Creates a recording file, and writes its header.
+     *
+     * @param file                  The path of the recording file.
+     * @param seed                  The seed of the game's randomness.
+     * @param fixedDeltaTime        The fixed time step of the game.
+     * @param bricksTableDimensions The dimensions of the game's bricks table.
+     * @throws IOException if the file could not be written.
+     */
+    public InputRecorder(Path file, long seed, float fixedDeltaTime, Vector2 bricksTableDimensions)
+            throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        this.recordedInputListener = (UserInputListener) Proxy.newProxyInstance(
+                UserInputListener.class.getClassLoader(), new Class<?>[]{UserInputListener.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("isKeyPressed")) {
+                        return isPressed(mask, (Integer) args[0]);
+                    }
+                    try {
+                        return method.invoke(windowInputListener, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeLong(seed);
+        output.writeFloat(fixedDeltaTime);
+        output.writeInt((int) bricksTableDimensions.x());
+        output.writeInt((int) bricksTableDimensions.y());
+    }
+
+    /**
+     * Sets the input listener of the window, to sample the keys from, and retrieves the input listener the
+     * game should read during the recorded frames instead.
+     *
+     * @param windowInputListener The input listener of the window.
+     * @return The listener that answers by the keys that were recorded in the current frame (and delegates
+     *         anything else to the window's listener).
+     */
+    public UserInputListener wrap(UserInputListener windowInputListener) {
+        this.windowInputListener = windowInputListener;
+        return recordedInputListener;
+    }
+
+    /**
+     * Starts a new frame: samples the recorded keys from the window's listener, and records them.
+     */
+    public synchronized void nextFrame() {
+        int newMask = 0;
+        for (int i = 0; i < RECORDED_KEYS.length; i++) {
+            if (windowInputListener.isKeyPressed(RECORDED_KEYS[i])) {
+                newMask |= 1 << i;
+            }
+        }
+        if (newMask != mask && runLength > 0) {
+            tryWriteRun();
+        }
+        mask = newMask;
+        runLength++;
+        framesCount++;
+    }
+
+    /**
+     * Retrieves the number of recorded frames.
+     *
+     * @return The number of frames recorded so far.
+     */
+    public long getFramesCount() {
+        return framesCount;
+    }
+
+    /**
+     * Writes the last run of frames and closes the file. Closing it again does nothing.
+     *
+     * @throws IOException if the recording could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (runLength > 0 && !failed) {
+            writeRun();
+        }
+        closed = true;
+        output.close();
+    }
+
+    /**
+     * Checks whether a key is pressed in a mask of the recorded keys.
+     *
+     * @param mask    The mask.
+     * @param keyCode The code of the key, as in KeyEvent.
+     * @return True if the key is recorded and pressed in the mask, false otherwise.
+     */
+    static boolean isPressed(int mask, int keyCode) {
+        for (int i = 0; i < RECORDED_KEYS.length; i++) {
+            if (RECORDED_KEYS[i] == keyCode) {
+                return (mask & (1 << i)) != 0;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Writes the current run, unless the recording already failed. On failure, the recording stops.
+     */
+    private void tryWriteRun() {
+        if (failed || closed) {
+            runLength = 0;
+            return;
+        }
+        try {
+            writeRun();
+        } catch (IOException e) {
+            failed = true;
+            System.err.println(RECORDING_FAILED_MSG + e.getMessage());
+        }
+    }
+
+    /*
+     * Writes the current run: the mask, and the number of frames as a variable-length integer (7 bits per
+     * byte, least significant first, with the high bit set on all the bytes but the last).
+     */
+    private void writeRun() throws IOException {
+        output.writeByte(mask);
+        int length = runLength;
+        while ((length & ~VARINT_PAYLOAD_MASK) != 0) {
+            output.writeByte((length & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION_BIT);
+            length >>>= VARINT_PAYLOAD_BITS;
+        }
+        output.writeByte(length);
+        runLength = 0;
+    }
+}
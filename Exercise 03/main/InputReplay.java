@@ -0,0 +1,123 @@
+package bricker.main;
+
+import danogl.util.Vector2;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays a recording of InputRecorder, frame by frame: reads its header (the seed, time step and bricks
+ * table dimensions to recreate the game with), and then the mask of the keys pressed in every frame.
+ */
+public class InputReplay implements AutoCloseable {
+
+    private static final String BAD_FILE_MSG = "Not a Bricker input recording: ";
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+
+    private final DataInputStream input;
+    private final long seed;
+    private final float fixedDeltaTime;
+    private final Vector2 bricksTableDimensions;
+    private int mask = 0;
+    private int runLeft = 0;  // the number of frames left of the current mask
+    private boolean ended = false;
+
+    /**
+     * Opens a recording file, and reads its header.
+     *
+     * @param file The path of the recording file.
+     * @throws IOException if the file could not be read, or is not a recording.
+     */
+    public InputReplay(Path file) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        if (input.readInt() != InputRecorder.MAGIC || input.readByte() != InputRecorder.VERSION) {
+            input.close();
+            throw new IOException(BAD_FILE_MSG + file);
+        }
+        this.seed = input.readLong();
+        this.fixedDeltaTime = input.readFloat();
+        int numberOfBricksInRow = input.readInt();
+        this.bricksTableDimensions = new Vector2(numberOfBricksInRow, input.readInt());
+    }
+
+    /**
+     * Retrieves the seed of the recorded game.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieves the fixed time step of the recorded game.
+     *
+     * @return The time step, in seconds.
+     */
+    public float getFixedDeltaTime() {
+        return fixedDeltaTime;
+    }
+
+    /**
+     * Retrieves the bricks table dimensions of the recorded game.
+     *
+     * @return The dimensions of the bricks table.
+     */
+    public Vector2 getBricksTableDimensions() {
+        return bricksTableDimensions;
+    }
+
+    /**
+     * Reads the keys of the next frame.
+     *
+     * @return The mask of the keys pressed in the frame, or -1 if the recording ended.
+     * @throws IOException if the file could not be read.
+     */
+    public int nextFrame() throws IOException {
+        while (runLeft == 0) {
+            if (ended) {
+                return -1;
+            }
+            try {
+                mask = input.readUnsignedByte();
+            } catch (EOFException e) {
+                ended = true;
+                return -1;
+            }
+            runLeft = readVarint();
+        }
+        runLeft--;
+        return mask;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /*
+     * Reads a variable-length integer, as InputRecorder writes it.
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.readUnsignedByte();
+            value |= (b & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((b & VARINT_CONTINUATION_BIT) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,186 @@
+package bricker.main;
+
+import bricker.gameobjects.BrickField;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A level of the Bricker game in a compact binary file: a handcrafted layout of bricks, instead of a full
+ * table of random bricks.
+ * The file starts with a header - a magic number, the format version, the number of rows and of bricks in a
+ * row, and the number of bricks - followed by a fixed-size record per brick: its row and column (2 bytes
+ * each), its strategy code (as in CollisionStrategyFactory) and its hit points (a byte each). All the
+ * numbers are big-endian.
+ * <p>
+ * The file is memory-mapped rather than read: loading a level into a BrickField copies the records
+ * straight from the mapped pages into the field's arrays, with no parsing and no allocation per brick, so
+ * a level of millions of bricks loads in milliseconds - and again on every new game, from the same mapping.
+ */
+public class LevelFile {
+
+    /**
+     * The magic number that starts every level file ("BRKL").
+     */
+    public static final int MAGIC = 0x42524B4C;
+
+    /**
+     * The version of the level file format.
+     */
+    public static final byte VERSION = 1;
+
+    /* Format Constants: */
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + 3 * Integer.BYTES;
+    private static final int RECORD_SIZE = 2 * Short.BYTES + 2 * Byte.BYTES;
+    private static final int MAX_DIMENSION = 0xFFFF;  // rows and columns are unsigned shorts
+    private static final int MAX_CELLS = 1 << 24;  // the field's arrays are indexed by an int product
+    private static final int UNSIGNED_SHORT_MASK = 0xFFFF;
+
+    /* Error Messages: */
+    private static final String BAD_FILE_MSG = "Not a Bricker level: ";
+    private static final String TOO_LARGE_FILE_MSG = "Too large a level file (%d bytes): %s";
+    private static final String TOO_LARGE_TABLE_MSG = "Too large a level table (%d by %d bricks): %s";
+    private static final String BAD_SIZE_MSG = "Wrong size of a level of %d bricks: %s";
+    private static final String BAD_BRICK_MSG = "Bad brick #%d (row %d, column %d, %d hit points) in: %s";
+
+    private final ByteBuffer buffer;  // the mapped file
+    private final int numberOfRows, numberOfBricksInRow;
+    private final int numberOfBricks;
+
+    /*
+     * Constructs a level of a mapped file, whose header was validated.
+     */
+    private LevelFile(ByteBuffer buffer, int numberOfRows, int numberOfBricksInRow, int numberOfBricks) {
+        this.buffer = buffer;
+        this.numberOfRows = numberOfRows;
+        this.numberOfBricksInRow = numberOfBricksInRow;
+        this.numberOfBricks = numberOfBricks;
+    }
+
+    /**
+     * Opens a level file: maps it to memory and validates it - its header, its size, that its table has at
+     * most 2^24 cells, and that every brick is inside the table and has hit points - so loading it can't
+     * fail.
+     *
+     * @param file The path of the level file.
+     * @return The level.
+     * @throws IOException if the file could not be read, or is not a valid level.
+     */
+    public static LevelFile open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {  // a buffer can't map it
+                throw new IOException(String.format(TOO_LARGE_FILE_MSG, size, file));
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);  // outlives the channel
+        } catch (IllegalArgumentException e) {
+            throw new IOException(BAD_FILE_MSG + file, e);
+        }
+        if (buffer.limit() < HEADER_SIZE ||
+                buffer.getInt(0) != MAGIC || buffer.get(Integer.BYTES) != VERSION) {
+            throw new IOException(BAD_FILE_MSG + file);
+        }
+        int numberOfRows = buffer.getInt(Integer.BYTES + Byte.BYTES);
+        int numberOfBricksInRow = buffer.getInt(2 * Integer.BYTES + Byte.BYTES);
+        int numberOfBricks = buffer.getInt(3 * Integer.BYTES + Byte.BYTES);
+        if (numberOfRows <= 0 || numberOfRows > MAX_DIMENSION ||
+                numberOfBricksInRow <= 0 || numberOfBricksInRow > MAX_DIMENSION || numberOfBricks < 0) {
+            throw new IOException(BAD_FILE_MSG + file);
+        }
+        if ((long) numberOfRows * numberOfBricksInRow > MAX_CELLS) {
+            throw new IOException(String.format(TOO_LARGE_TABLE_MSG,
+                    numberOfBricksInRow, numberOfRows, file));
+        }
+        if (buffer.limit() != HEADER_SIZE + (long) numberOfBricks * RECORD_SIZE) {
+            throw new IOException(String.format(BAD_SIZE_MSG, numberOfBricks, file));
+        }
+        for (int i = 0; i < numberOfBricks; i++) {
+            int position = HEADER_SIZE + i * RECORD_SIZE;
+            int row = buffer.getShort(position) & UNSIGNED_SHORT_MASK;
+            int col = buffer.getShort(position + Short.BYTES) & UNSIGNED_SHORT_MASK;
+            int hitPoints = buffer.get(position + 2 * Short.BYTES + Byte.BYTES);
+            if (row >= numberOfRows || col >= numberOfBricksInRow || hitPoints <= 0) {
+                throw new IOException(String.format(BAD_BRICK_MSG, i, row, col, hitPoints, file));
+            }
+        }
+        return new LevelFile(buffer, numberOfRows, numberOfBricksInRow, numberOfBricks);
+    }
+
+    /**
+     * Writes the alive bricks of a field to a level file, so a field can be designed (or generated) once
+     * and played again.
+     *
+     * @param file       The path of the level file.
+     * @param brickField The field to write.
+     * @throws IOException if the file could not be written.
+     */
+    public static void save(Path file, BrickField brickField) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeByte(VERSION);
+            output.writeInt(brickField.getNumberOfRows());
+            output.writeInt(brickField.getNumberOfBricksInRow());
+            output.writeInt(brickField.getAliveCount());
+            for (int row = 0; row < brickField.getNumberOfRows(); row++) {
+                for (int col = 0; col < brickField.getNumberOfBricksInRow(); col++) {
+                    if (brickField.isAlive(row, col)) {
+                        output.writeShort(row);
+                        output.writeShort(col);
+                        output.writeByte(brickField.getStrategyCode(row, col));
+                        output.writeByte(brickField.getHitPoints(row, col));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of rows of the level's table.
+     *
+     * @return The number of rows.
+     */
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Retrieves the number of bricks in a row of the level's table.
+     *
+     * @return The number of bricks in a row.
+     */
+    public int getNumberOfBricksInRow() {
+        return numberOfBricksInRow;
+    }
+
+    /**
+     * Retrieves the number of bricks in the level.
+     *
+     * @return The number of bricks.
+     */
+    public int getNumberOfBricks() {
+        return numberOfBricks;
+    }
+
+    /**
+     * Places the level's bricks in a field of (at least) the level's dimensions.
+     *
+     * @param brickField The empty field.
+     */
+    public void loadInto(BrickField brickField) {
+        for (int i = 0; i < numberOfBricks; i++) {
+            int position = HEADER_SIZE + i * RECORD_SIZE;
+            brickField.setBrick(buffer.getShort(position) & UNSIGNED_SHORT_MASK,
+                    buffer.getShort(position + Short.BYTES) & UNSIGNED_SHORT_MASK,
+                    buffer.get(position + 2 * Short.BYTES),
+                    buffer.get(position + 2 * Short.BYTES + Byte.BYTES));
+        }
+    }
+}
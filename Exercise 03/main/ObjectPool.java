@@ -0,0 +1,94 @@
+package bricker.main;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of reusable game objects, so the collision strategies don't allocate new objects (and
+ * create GC pressure) on every brick hit. An object that is acquired from the pool should be reset by the
+ * acquirer before use, and released back when it's removed from the game. The pool keeps at most its
+ * capacity of released objects - any more are dropped to the GC.
+ *
+ * @param <T> The type of the pooled objects.
+ */
+public class ObjectPool<T> {
+
+    private final ArrayDeque<T> pooled;
+    private final int capacity;
+    private long hits = 0, misses = 0, drops = 0;
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param capacity The maximal number of released objects to keep.
+     */
+    public ObjectPool(int capacity) {
+        this.capacity = capacity;
+        this.pooled = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Acquires an object: a released one if there is any (a hit), or a new one otherwise (a miss).
+     *
+     * @param factory Creates a new object, on a miss.
+     * @return The object, which should be reset before use.
+     */
+    public T acquire(Supplier<? extends T> factory) {
+        T object = pooled.pollLast();
+        if (object == null) {
+            misses++;
+            return factory.get();
+        }
+        hits++;
+        return object;
+    }
+
+    /**
+     * Releases an object that is no longer in the game back to the pool, if the pool is not full.
+     *
+     * @param object The released object.
+     */
+    public void release(T object) {
+        if (pooled.size() < capacity) {
+            pooled.addLast(object);
+        } else {
+            drops++;
+        }
+    }
+
+    /**
+     * Retrieves the number of acquisitions that reused a released object.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retrieves the number of acquisitions that created a new object.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Retrieves the number of released objects that were dropped, since the pool was full.
+     *
+     * @return The number of drops.
+     */
+    public long getDrops() {
+        return drops;
+    }
+
+    /**
+     * Retrieves the number of released objects that are waiting to be reused.
+     *
+     * @return The current size of the pool.
+     */
+    public int getSize() {
+        return pooled.size();
+    }
+}
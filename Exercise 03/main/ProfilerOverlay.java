@@ -0,0 +1,64 @@
+package bricker.main;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+
+import java.awt.Color;
+
+/**
+ * A sub-manager of the BrickerGameManager, that displays the frames profile of the game over it: the
+ * report of its FrameProfiler, and the number of live objects in every layer.
+ * The text is refreshed every few frames only, so the overlay itself hardly affects the profile.
+ */
+public class ProfilerOverlay {
+
+    private static final int REFRESH_FRAMES = 30;
+    private static final float LINE_HEIGHT = 14;
+    private static final float LINE_WIDTH = 460;
+    private static final Color TEXT_COLOR = Color.white;
+
+    private final BrickerGameManager brickerGameManager;
+    private final FrameProfiler profiler;
+    private final TextRenderable[] lines;
+    private int framesToRefresh = 0;
+
+    /**
+     * Constructs a new ProfilerOverlay, and adds its lines to the UI layer of the game.
+     *
+     * @param brickerGameManager The BrickerGameManager instance associated with this ProfilerOverlay.
+     * @param profiler           The profiler of the game's frames.
+     * @param topLeftCorner      The top-left corner of the overlay, in the window.
+     */
+    public ProfilerOverlay(BrickerGameManager brickerGameManager, FrameProfiler profiler,
+                           Vector2 topLeftCorner) {
+        this.brickerGameManager = brickerGameManager;
+        this.profiler = profiler;
+        this.lines = new TextRenderable[profiler.getReportLines().length + 1];  // and the layers line
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = new TextRenderable(Constants.EMPTY_STRING);
+            lines[i].setColor(TEXT_COLOR);
+            GameObject line = new GameObject(topLeftCorner.add(new Vector2(0, i * LINE_HEIGHT)),
+                    new Vector2(LINE_WIDTH, LINE_HEIGHT), lines[i]);
+            line.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+            brickerGameManager.addGameObject(line, Layer.UI);
+        }
+    }
+
+    /**
+     * Refreshes the overlay's text, every few frames.
+     */
+    public void update() {
+        if (--framesToRefresh > 0) {
+            return;
+        }
+        framesToRefresh = REFRESH_FRAMES;
+        String[] reportLines = profiler.getReportLines();
+        for (int i = 0; i < reportLines.length; i++) {
+            lines[i].setString(reportLines[i]);
+        }
+        lines[reportLines.length].setString(brickerGameManager.formatObjectsPerLayer());
+    }
+}
@@ -51,8 +51,7 @@ public class StrikesManager {
         this.basicDimensions = new Vector2(heartSize, heartSize);
 
         // Initializing graphic representation:
-        this.heartImage = controller.imageReader.readImage(Constants.HEART_IMAGE_PATH,
-                true);
+        this.heartImage = controller.assets.getImage(AssetRegistry.ImageAsset.HEART);
         this.hearts = new Heart[MAX_NUMBER_OF_STRIKES];
         while (this.curNumberOfStrikes < INIT_NUMBER_OF_STRIKES) {
             addHeart();